@@ -6,9 +6,13 @@
  */
 package main.java;
 
+import main.java.lexer.Source;
 import main.java.parser.Parser;
+import main.java.parser.errors.ParseError;
 
 import java.io.FileNotFoundException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 
 /**
@@ -18,10 +22,16 @@ import java.io.UnsupportedEncodingException;
  */
 public class Driver {
 
+    private static final String STDIO = "-";
+    /* standard output, kept for the TVI code when the path is - */
+    private static final PrintStream CODE_OUT = System.out;
     private static final String INVALID_INPUT = "\nInvalid Input! \nThis driver must be run at the command-line as: "+
-            "./Driver [file-path] [-d (optional)]" +
-            "\n 1. Where file-path is the path to your source file." +
-            "\n 2. Where the -d (also --debug) option indicates that you want to be in debug mode.";
+            "./Driver [file-path] [-d | -p (optional)]" +
+            "\n 1. Where file-path is the path to your source file (- reads the source from standard input" +
+            "\n    and writes the TVI code to standard output instead of a .tvi file)." +
+            "\n 2. Where the -d (also --debug) option indicates that you want to be in debug mode." +
+            "\n 3. Where the -p (also --pipeline) option lexes, parses and runs the semantic actions" +
+            "\n    on separate threads (for large files, the output is the same).";
 
     /**
      * Main: the point of execution
@@ -30,26 +40,60 @@ public class Driver {
      */
     public static void main(String[] args) throws FileNotFoundException, UnsupportedEncodingException {
         Parser prs;
+        /* with -, standard output carries only the TVI code: banners and diagnostics go to standard error */
+        if (args.length >= 1 && args[0].equals(STDIO)) { System.setOut(System.err); }
         if (args.length == 1) {
-            prs = new Parser(args[0]);
+            prs = open(args[0]);
             System.out.println("Beginning to parse code in: " + args[0]);
             System.out.println();
-            prs.run();
-            prs.writeToFile(getFileName(args[0]));
+            compile(prs, args[0]);
 
         } else if (args.length == 2 && (args[1].equals("-d") || args[1].equals("--debug"))) {
-            prs = new Parser(args[0]);
+            prs = open(args[0]);
             prs.debugMode();
             System.out.println("Beginning to parse code in: " + args[0]);
             System.out.println("Debug Mode Enabled\n");
-            prs.run();
-            prs.writeToFile(getFileName(args[0]));
+            compile(prs, args[0]);
+        } else if (args.length == 2 && (args[1].equals("-p") || args[1].equals("--pipeline"))) {
+            prs = open(args[0]);
+            prs.pipelineMode();
+            System.out.println("Beginning to parse code in: " + args[0]);
+            System.out.println();
+            compile(prs, args[0]);
         }
         else {
             System.out.println(INVALID_INPUT);
         }
     }
 
+    /**
+     * Creates the parser for a path (- is standard input)
+     */
+    private static Parser open(String path) throws FileNotFoundException {
+        if (path.equals(STDIO)) { return new Parser(Source.of("<stdin>", System.in)); }
+        return new Parser(path);
+    }
+
+    /**
+     * Parses the program and writes its code, or exits with 1 on syntax errors (already printed)
+     */
+    private static void compile(Parser prs, String path) throws FileNotFoundException, UnsupportedEncodingException {
+        try {
+            prs.run();
+        } catch (ParseError e) {
+            System.exit(1);
+        }
+        write(prs, path);
+    }
+
+    /**
+     * Writes the TVI code next to the source (- is standard output, which then carries nothing else)
+     */
+    private static void write(Parser prs, String path) throws FileNotFoundException, UnsupportedEncodingException {
+        if (path.equals(STDIO)) { prs.writeTo(new OutputStreamWriter(CODE_OUT)); }
+        else { prs.writeToFile(getFileName(path)); }
+    }
+
     /**
      * Used to extract file name
      */
@@ -0,0 +1,34 @@
+/*
+ * File: Location.java
+ *
+ * Desc: contains the Location class, the one place
+ *       where the location of an error is written.
+ *
+ */
+package main.java.errors;
+
+/**
+ * Location class
+ *
+ * Every error of the compiler (LexerError, ParseError, SemanticError) ends its
+ * message with where it was found, written the same way: "On line: N, column: C."
+ * The messages themselves never name the line.
+ */
+public final class Location {
+
+    private Location(){ }
+
+    /**
+     * describe: an error message followed by its location.
+     * @param message: the message, without any location.
+     * @param lineNum: the line of the error (0 if unknown, the message is left as it is).
+     * @param column: the column of the error (1 based, 0 if unknown).
+     * @return the message with its location.
+     */
+    public static String describe(String message, int lineNum, int column){
+        if(lineNum == 0){ return message; }
+        if(column == 0){ return message+" On line: "+lineNum+"."; }
+        return message+" On line: "+lineNum+", column: "+column+".";
+    }
+
+} /* end of Location class */
@@ -0,0 +1,172 @@
+/*
+ * File: ByteBufferReader.java
+ *
+ * Desc: contains the ByteBuffer backed SourceReader.
+ *
+ */
+package main.java.lexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ByteBufferReader class
+ *
+ * Walks the raw bytes of a buffer (usually a memory-mapped file)
+ * and counts line terminators itself, so no String is created per line.
+ * Line breaks follow BufferedReader.readLine: "\n", "\r" or "\r\n".
+ *
+ * Note: every byte maps to one character. The language alphabet is
+ *       ASCII, so a multi-byte character only changes which character
+ *       an InvalidCharacter error reports.
+ */
+class ByteBufferReader implements SourceReader {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte COMNT_START = '{';
+    private static final byte COMNT_END = '}';
+
+    /*
+     * - buffer: the bytes of the source
+     * - channel: the channel the buffer was mapped from (null if not mapped)
+     * - limit: the number of bytes in the source
+     * - pos: the offset of the next byte to be read
+     * - lineNum: the current line number being analyzed
+     * - hasLine: False once the last line has been consumed
+     */
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private final int limit;
+    private int pos;
+    private int lineNum;
+    private boolean hasLine;
+
+    /**
+     * ByteBufferReader constructor
+     * @param buffer: the source bytes, read from position zero up to the limit.
+     */
+    ByteBufferReader(ByteBuffer buffer) {
+        this(buffer, 0, buffer.limit(), 1);
+    }
+
+    /**
+     * ByteBufferReader constructor
+     * @param buffer: the source bytes.
+     * @param start: the offset of the first byte to read (the start of a line).
+     * @param limit: the offset after the last byte to read.
+     * @param lineNum: the line number at start.
+     */
+    ByteBufferReader(ByteBuffer buffer, int start, int limit, int lineNum) {
+        this.buffer = buffer;
+        this.limit = limit;
+        this.pos = start;
+        this.lineNum = lineNum;
+        this.hasLine = start < limit;
+    }
+
+    /**
+     * map: memory-maps a file read-only.
+     * @param file: the source file.
+     * @return a ByteBufferReader over the mapped file.
+     * @throws IOException if the file cannot be opened or is too large to map.
+     */
+    static ByteBufferReader map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel();
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) { throw new IOException("File too large to map: " + file.getPath()); }
+            ByteBufferReader reader = new ByteBufferReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            reader.channel = channel;
+            return reader;
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * isLineBreak: checks if the byte ends a line.
+     */
+    private static boolean isLineBreak(byte b) { return b == LF || b == CR; }
+
+    /**
+     * read: method for obtaining the next character in the buffer.
+     * @return the next char in the buffer
+     */
+    public char read() {
+        /* the last line has already been consumed */
+        if (!this.hasLine) { return EOF; }
+
+        /* last line without a terminator */
+        if (this.pos >= this.limit) {
+            this.lineNum++;
+            this.hasLine = false;
+            return SPACE;
+        }
+
+        byte b = this.buffer.get(this.pos++);
+        if (isLineBreak(b)) {
+            /* treat "\r\n" as a single break */
+            if (b == CR && this.pos < this.limit && this.buffer.get(this.pos) == LF) { this.pos++; }
+            this.lineNum++;
+            this.hasLine = this.pos < this.limit;
+            return SPACE;
+        }
+        return (char) (b & 0xFF);
+    }
+
+    public void skipBlanks() {
+        int p = this.pos;
+        while (p < this.limit) {
+            byte b = this.buffer.get(p);
+            /* bytes outside of ASCII are never whitespace */
+            if (b < 0 || isLineBreak(b) || !CharClass.isWhitespace((char) b)) { break; }
+            p++;
+        }
+        this.pos = p;
+    }
+
+    public void skipCommentText() {
+        int p = this.pos;
+        while (p < this.limit) {
+            byte b = this.buffer.get(p);
+            if (b == COMNT_START || b == COMNT_END || isLineBreak(b)) { break; }
+            p++;
+        }
+        this.pos = p;
+    }
+
+    public int getLineNum() { return this.lineNum; }
+
+    public int getOffset() { return this.pos; }
+
+    /**
+     * getLine: decodes the current line.
+     * Note: allocates, only meant for diagnostics.
+     */
+    public String getLine() {
+        if (!this.hasLine) { return null; }
+        int start = this.pos;
+        while (start > 0 && !isLineBreak(this.buffer.get(start - 1))) { start--; }
+        int end = this.pos;
+        while (end < this.limit && !isLineBreak(this.buffer.get(end))) { end++; }
+        byte[] bytes = new byte[end - start];
+        for (int k = 0; k < bytes.length; k++) { bytes[k] = this.buffer.get(start + k); }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    public void close() throws IOException {
+        this.hasLine = false;
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+} /* end of ByteBufferReader class */
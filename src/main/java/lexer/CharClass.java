@@ -0,0 +1,103 @@
+/*
+ * File: CharClass.java
+ *
+ * Desc: contains the character classification
+ *       table shared by the lexer classes.
+ *
+ */
+package main.java.lexer;
+
+/**
+ * CharClass class
+ *
+ * Precomputed flags for every ASCII character, so classifying a
+ * character is a single array lookup. Characters outside of ASCII
+ * have no flags (with the exception of Unicode whitespace).
+ */
+final class CharClass {
+
+    /* number of entries in the table (ASCII) */
+    static final int SIZE = 128;
+
+    /*
+     * Flags:
+     * - LETTER: a-z, A-Z
+     * - DIGIT: 0-9
+     * - WHITESPACE: skipped by the FileStream (same as Character.isWhitespace).
+     * - VALID: accepted by the language.
+     * - PUNCTUATION: single character punctuation.
+     * - SIMPLE_OP: operators that can be determined right away.
+     * - SPECIAL_OP: operators that need a look ahead to be determined.
+     */
+    static final int LETTER = 1;
+    static final int DIGIT = 1 << 1;
+    static final int WHITESPACE = 1 << 2;
+    static final int VALID = 1 << 3;
+    static final int PUNCTUATION = 1 << 4;
+    static final int SIMPLE_OP = 1 << 5;
+    static final int SPECIAL_OP = 1 << 6;
+
+    /* VALID_CHAR: the characters accepted by the language. */
+    private static final String VALID_CHAR =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz" +
+            "0123456789" +
+            "[]{()<>" +
+            "+=-*/" +
+            ".,;:" +
+            "&|" +
+            "\t\n ";
+
+    private static final byte[] TABLE = new byte[SIZE];
+
+    static {
+        for (char chr = 0; chr < SIZE; chr++) {
+            if ((chr >= 'a' && chr <= 'z') || (chr >= 'A' && chr <= 'Z')) { mark(chr, LETTER); }
+            if (chr >= '0' && chr <= '9') { mark(chr, DIGIT); }
+            if (Character.isWhitespace(chr)) { mark(chr, WHITESPACE); }
+        }
+        mark(VALID_CHAR, VALID);
+        mark(",;)([]", PUNCTUATION);
+        mark("*/=", SIMPLE_OP);
+        mark(":.+-<>", SPECIAL_OP);
+    }
+
+    /* no instances */
+    private CharClass(){ }
+
+    private static void mark(char chr, int flag) { TABLE[chr] |= flag; }
+
+    private static void mark(String chars, int flag) {
+        for (int k = 0; k < chars.length(); k++) { mark(chars.charAt(k), flag); }
+    }
+
+    /**
+     * is: checks if the character has any of the given flags.
+     * @param chr: the character being checked.
+     * @param flags: one or more flags OR'ed together.
+     * @return True if the character has one of the flags, False otherwise.
+     */
+    static boolean is(char chr, int flags) { return chr < SIZE && (TABLE[chr] & flags) != 0; }
+
+    static boolean isLetter(char chr) { return is(chr, LETTER); }
+
+    static boolean isDigit(char chr) { return is(chr, DIGIT); }
+
+    static boolean isLetterOrDigit(char chr) { return is(chr, LETTER | DIGIT); }
+
+    static boolean isValid(char chr) { return is(chr, VALID); }
+
+    static boolean isPunctuation(char chr) { return is(chr, PUNCTUATION); }
+
+    static boolean isSimpleOp(char chr) { return is(chr, SIMPLE_OP); }
+
+    static boolean isSpecialOp(char chr) { return is(chr, SPECIAL_OP); }
+
+    /**
+     * isWhitespace: same result as Character.isWhitespace.
+     * Note: only characters outside of the table fall back to Character.isWhitespace.
+     */
+    static boolean isWhitespace(char chr) {
+        return (chr < SIZE) ? (TABLE[chr] & WHITESPACE) != 0 : Character.isWhitespace(chr);
+    }
+
+} /* end of CharClass class */
@@ -0,0 +1,131 @@
+/*
+ * File: CharSequenceReader.java
+ *
+ * Desc: contains the CharSequence backed SourceReader.
+ *
+ */
+package main.java.lexer;
+
+/**
+ * CharSequenceReader class
+ *
+ * Walks the characters of a program held in memory and counts line
+ * terminators itself, like ByteBufferReader does for bytes.
+ * Line breaks follow BufferedReader.readLine: "\n", "\r" or "\r\n".
+ */
+class CharSequenceReader implements SourceReader {
+
+    private static final char LF = '\n';
+    private static final char CR = '\r';
+    private static final char COMNT_START = '{';
+    private static final char COMNT_END = '}';
+
+    /*
+     * - text: the characters of the source
+     * - limit: the number of characters in the source
+     * - pos: the offset of the next character to be read
+     * - lineNum: the current line number being analyzed
+     * - hasLine: False once the last line has been consumed
+     */
+    private CharSequence text;
+    private final int limit;
+    private int pos;
+    private int lineNum;
+    private boolean hasLine;
+
+    /**
+     * CharSequenceReader constructor
+     * @param text: the source characters.
+     */
+    CharSequenceReader(CharSequence text) {
+        this(text, 0, 1);
+    }
+
+    /**
+     * CharSequenceReader constructor
+     * @param text: the source characters.
+     * @param start: the offset of the first character to read.
+     * @param lineNum: the line number at start.
+     */
+    CharSequenceReader(CharSequence text, int start, int lineNum) {
+        this.text = text;
+        this.limit = text.length();
+        this.pos = start;
+        this.lineNum = lineNum;
+        this.hasLine = start < this.limit;
+    }
+
+    /**
+     * isLineBreak: checks if the character ends a line.
+     */
+    private static boolean isLineBreak(char c) { return c == LF || c == CR; }
+
+    /**
+     * read: method for obtaining the next character in the source.
+     * @return the next char in the source
+     */
+    public char read() {
+        /* the last line has already been consumed */
+        if (!this.hasLine) { return EOF; }
+
+        /* last line without a terminator */
+        if (this.pos >= this.limit) {
+            this.lineNum++;
+            this.hasLine = false;
+            return SPACE;
+        }
+
+        char c = this.text.charAt(this.pos++);
+        if (isLineBreak(c)) {
+            /* treat "\r\n" as a single break */
+            if (c == CR && this.pos < this.limit && this.text.charAt(this.pos) == LF) { this.pos++; }
+            this.lineNum++;
+            this.hasLine = this.pos < this.limit;
+            return SPACE;
+        }
+        return c;
+    }
+
+    public void skipBlanks() {
+        int p = this.pos;
+        while (p < this.limit) {
+            char c = this.text.charAt(p);
+            if (isLineBreak(c) || !CharClass.isWhitespace(c)) { break; }
+            p++;
+        }
+        this.pos = p;
+    }
+
+    public void skipCommentText() {
+        int p = this.pos;
+        while (p < this.limit) {
+            char c = this.text.charAt(p);
+            if (c == COMNT_START || c == COMNT_END || isLineBreak(c)) { break; }
+            p++;
+        }
+        this.pos = p;
+    }
+
+    public int getLineNum() { return this.lineNum; }
+
+    public int getOffset() { return this.pos; }
+
+    /**
+     * getLine: the current line.
+     * Note: allocates, only meant for diagnostics.
+     */
+    public String getLine() {
+        if (!this.hasLine) { return null; }
+        int start = this.pos;
+        while (start > 0 && !isLineBreak(this.text.charAt(start - 1))) { start--; }
+        int end = this.pos;
+        while (end < this.limit && !isLineBreak(this.text.charAt(end))) { end++; }
+        return this.text.subSequence(start, end).toString();
+    }
+
+    public void close() {
+        this.hasLine = false;
+        this.text = "";
+    }
+
+} /* end of CharSequenceReader class */
@@ -7,10 +7,11 @@
  */
 package main.java.lexer;
 
+import main.java.errors.CompilerError;
+import main.java.lexer.errors.Diagnostics;
 import main.java.lexer.errors.LexerError;
 import main.java.lexer.exceptions.FileStreamException;
 import java.io.*;
-import java.util.Stack;
 import java.util.logging.Logger;
 
 /**
@@ -26,46 +27,74 @@ public class FileStream {
      * - COMNT_END: the character that ends a comment.
      * - EOF: the character found at the end of a file.
      * - SPACE: whitespace.
-     * - VALID_CHAR: the characters accepted by the language.
+     * - PB_MAX: the push back depth the lexer needs (an integer followed by ".").
      */
     private static final char COMNT_START = '{';
     private static final char COMNT_END = '}';
     private static final char EOF = (char)-1;
     private static final char SPACE = ' ';
-    private static final String VALID_CHAR =
-            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz" +
-            "0123456789" +
-            "[]{()<>" +
-            "+=-*/" +
-            ".,;:" +
-            "&|" +
-            "\t\n ";
+    private static final int PB_MAX = 2;
+
+    /**
+     * Backend: the ways the source file can be read.
+     * - BUFFERED: through a BufferedReader, one String per line.
+     * - MAPPED: through a memory-mapped FileChannel, byte by byte.
+     * - READ_AHEAD: byte by byte from large blocks, filled by a background thread
+     *               while the previous block is lexed (for slow file systems).
+     */
+    public enum Backend { BUFFERED, MAPPED, READ_AHEAD }
+
+    /*
+     * DEFAULT_BACKEND: how a file is read when no backend is given. The language
+     * alphabet is ASCII, so the raw bytes are lexed without decoding them to UTF-16
+     * first; a byte outside of ASCII is an invalid character (or comment text).
+     */
+    public static final Backend DEFAULT_BACKEND = Backend.MAPPED;
 
     /*
      * File handling structures:
-     * - file: an abstract representation of the file
-     * - bReader: a BufferedReader for reading the file
-     * - pbStack: push back stack
+     * - reader: the SourceReader for the chosen backend
+     * - pbBuffer: push back stack (top at pbSize - 1)
+     * - pbOffsets, pbLines, pbLineStarts: the offset, line number and line start of
+     *   the characters in pbBuffer
+     * - pbSize: the number of characters pushed back
+     * - recent, recentLines, recentLineStarts: ring of the offset, line number and line
+     *   start of the last characters returned by nextChar
+     * - recentTop: index of the last character in the ring
+     * - spans: whether the line and line start of each character are recorded
+     *   (only turned off by LexBenchmark, to measure what recording them costs)
      * - logger: structure to log problems
      */
-    private File file;
-    private BufferedReader bReader = null;
-    private Stack<Character> pbStack = new Stack<>();
+    private SourceReader reader = null;
+    private final char[] pbBuffer = new char[PB_MAX];
+    private final int[] pbOffsets = new int[PB_MAX];
+    private final int[] pbLines = new int[PB_MAX];
+    private final int[] pbLineStarts = new int[PB_MAX];
+    private int pbSize = 0;
+    private final int[] recent = new int[PB_MAX + 1];
+    private final int[] recentLines = new int[PB_MAX + 1];
+    private final int[] recentLineStarts = new int[PB_MAX + 1];
+    private int recentTop = 0;
+    private boolean spans = true;
     private static final Logger LOGGER = Logger.getLogger(FileStream.class.getName());
 
     /*
      * FileStream metadata:
      * - lineNum: the current line number being analyzed
-     * - line: the actual line being analyzed
-     * - charOffset: the character offset for the character being obtained
      * - fileChar: the current character in the file being analyzed
-     * - filePath: the path to the file
+     * - fileOffset: the offset of fileChar in the file
+     * - lineStart: the offset of the first character of the current line
+     * - filePath: the path to the file (or the name of an in-memory Source)
+     * - backend: how the file is read
+     * - diagnostics: where lexical errors are recorded (null: errors are thrown)
      */
     private int lineNum;
-    private String line;
-    private int charOffset;
     private char fileChar;
+    private int fileOffset;
+    private int lineStart;
     private String filePath;
+    private Backend backend;
+    private Diagnostics diagnostics;
 
 
     /**
@@ -73,16 +102,75 @@ public class FileStream {
      * @param filePath the path to the file
      */
     public FileStream(String filePath){
+        this(filePath, DEFAULT_BACKEND);
+    }
+
+    /**
+     * FileStream constructor
+     * @param filePath the path to the file
+     * @param backend how the file should be read
+     */
+    public FileStream(String filePath, Backend backend){
+        this(Source.file(filePath, backend));
+    }
+
+    /**
+     * FileStream constructor
+     * @param source the program to read (a file or a program in memory)
+     */
+    public FileStream(Source source){
+        this(source, null);
+    }
+
+    /**
+     * FileStream constructor
+     * @param source the program to read (a file or a program in memory)
+     * @param diagnostics where lexical errors are recorded, null to throw them
+     */
+    public FileStream(Source source, Diagnostics diagnostics){
+        this.filePath = source.getName();
+        this.backend = source.getBackend();
+        this.diagnostics = diagnostics;
+        openSource(source);
+    }
+
+    /**
+     * FileStream constructor
+     * @param reader a MAPPED reader over part of a file, positioned outside of any comment
+     *               (at the start of a line or of a Token)
+     * @param filePath the path to the file
+     * @param lineStart the offset of the first character of the line the reader is on
+     *
+     * Note: a reader starting at offset zero is opened like the file itself. Otherwise,
+     *       leading whitespace and comments are skipped by the first nextChar, so their
+     *       errors are thrown to the Tokenizer as they would be in the middle of the file.
+     */
+    FileStream(SourceReader reader, String filePath, int lineStart){
         this.filePath = filePath;
-        openFile(filePath);
+        this.backend = Backend.MAPPED;
+        this.reader = reader;
+        if(reader.getOffset() == 0){ initialize(); }
+        else{
+            this.lineNum = reader.getLineNum();
+            this.lineStart = lineStart;
+            this.fileChar = mvFilePointer();
+        }
     }
 
     /**
-     * getReader: getter method for the BufferedReader
-     * @return this.bReader
+     * isOpen: checks if the file is still open.
+     * @return True if the file has not been closed yet, False otherwise.
      */
-    public BufferedReader getBReader() {
-        return this.bReader;
+    public boolean isOpen() {
+        return this.reader != null;
+    }
+
+    /**
+     * getBackend: getter method for the backend reading the file
+     * @return this.backend
+     */
+    public Backend getBackend() {
+        return this.backend;
     }
 
     /**
@@ -102,12 +190,46 @@ public class FileStream {
     }
 
 
+    /**
+     * getCharOffset: the offset in the file of the last character returned by nextChar
+     * Note: pushing a character back restores the offset of the character before it.
+     * @return the character offset
+     */
+    public int getCharOffset() {
+        return this.recent[this.recentTop];
+    }
+
+    /**
+     * getCharLine: the line number of the last character returned by nextChar
+     * Note: unlike getLineNum, this is not moved on by the look ahead.
+     * @return the line number
+     */
+    public int getCharLine() {
+        return this.recentLines[this.recentTop];
+    }
+
+    /**
+     * getCharColumn: the column of the last character returned by nextChar
+     * @return the column (1 based)
+     */
+    public int getCharColumn() {
+        return this.recent[this.recentTop] - this.recentLineStarts[this.recentTop] + 1;
+    }
+
+    /**
+     * getDiagnostics: getter method for the diagnostics buffer
+     * @return the Diagnostics errors are recorded in, null if errors are thrown
+     */
+    public Diagnostics getDiagnostics() {
+        return this.diagnostics;
+    }
+
     /**
      * getLine: getter method for the current line of the file
      * @return the current line being analyzed
      */
     public String getLine() {
-        return this.line;
+        return (this.reader == null) ? null : this.reader.getLine();
     }
 
     /**
@@ -119,41 +241,92 @@ public class FileStream {
     }
 
     /**
-     * pushBack: wraps around stack push (simply makes things more readable)
+     * pushBack: pushes a character back onto the stream (read again by the next nextChar).
      * @param chr: a file character.
+     * @throws CompilerError if more than PB_MAX characters are pushed back.
      */
     public void pushBack(char chr){
-        pbStack.push(chr);
+        if(pbSize == PB_MAX){ throw new CompilerError("FileStream push back limit ("+PB_MAX+") exceeded on line: "+lineNum+"."); }
+        pbOffsets[pbSize] = recent[recentTop];
+        if(spans){
+            pbLines[pbSize] = recentLines[recentTop];
+            pbLineStarts[pbSize] = recentLineStarts[recentTop];
+        }
+        recentTop = (recentTop + PB_MAX) % (PB_MAX + 1);
+        pbBuffer[pbSize++] = chr;
     }
 
     /**
-     * popStack: pops the stack n times
+     * remember: records where a character returned by nextChar is.
+     * @param offset: the offset of the character.
+     * @param line: the line number of the character.
+     * @param start: the offset of the first character of its line.
+     */
+    private void remember(int offset, int line, int start){
+        recentTop = (recentTop + 1) % (PB_MAX + 1);
+        recent[recentTop] = offset;
+        if(spans){
+            recentLines[recentTop] = line;
+            recentLineStarts[recentTop] = start;
+        }
+    }
+
+    /**
+     * recordSpans: turns the recording of the line and column of each character on or off.
+     * Note: with it off, getCharLine and getCharColumn are meaningless (see LexBenchmark).
+     * @param on: True to record them (the default).
+     */
+    void recordSpans(boolean on){ this.spans = on; }
+
+    /**
+     * raise: reports a located lexical error.
+     * Note: without diagnostics the error is thrown. Otherwise it is recorded and
+     *       returns, and the caller skips the offending characters.
+     * @param error: the located LexerError.
+     */
+    void raise(LexerError error){
+        if(this.diagnostics == null){ throw error; }
+        this.diagnostics.record(error);
+    }
+
+    /**
+     * popPushBack: discards the last character pushed back
      */
     public void popPushBack(){
-        if(!pbStack.empty()){ pbStack.pop(); }
+        if(pbSize > 0){ pbSize--; }
     }
 
     /**
-     * openFile: wrapper routine to open the file.
+     * openSource: wrapper routine to open the file (or in-memory program).
      */
-    private void openFile(String filePath){
+    private void openSource(Source source){
         try{
-            /* set abstract File representation */
-            this.file = new File(filePath);
-            /* initialize the buffered reader */
-            this.bReader = new BufferedReader(new FileReader(this.file.getAbsolutePath()));
+            /* initialize the reader for the chosen backend */
+            this.reader = source.open();
+        }
+        /* handle exceptions */
+        catch (IOException e){ /* subclass of FileNotFoundException */
+            System.out.println(e.toString());
+            return;
+        }
+        initialize();
+    }
 
+    /**
+     * initialize: reads the first character of a freshly opened file.
+     */
+    private void initialize(){
+        try{
             /* initialize the line and other metadata */
-            this.line = bReader.readLine();
             this.lineNum = 1;
+            this.lineStart = 0;
             /* use get char to set the offset and set the current character */
             this.fileChar = mvFilePointer();
             skip();
         }
         /* handle exceptions */
-        catch (IOException | LexerError e){ /* subclass of FileNotFoundException */
+        catch (LexerError e){
             System.out.println(e.toString());
-            e.printStackTrace(System.out);
         }
     }
 
@@ -163,31 +336,22 @@ public class FileStream {
     public void closeFile(){
         try{
             /* check if the reader was even used (i,e: a file was even opened) */
-            if(this.bReader == null) throw FileStreamException.ClosingUninitializedReader();
+            if(this.reader == null) throw FileStreamException.ClosingUninitializedReader();
 
             /* otherwise: reset any metadata */
-            this.line = null;
             this.lineNum = 0;
             this.fileChar = EOF;
-            this.charOffset = 0;
-            /* close the buffered reader */
-            this.bReader.close();
-            this.bReader = null;
+            /* close the reader */
+            this.reader.close();
+            this.reader = null;
         }
         /* handle exceptions */
         catch (FileStreamException | IOException e){
-            System.out.print(e.toString());
-            e.printStackTrace(System.out);
+            System.out.println(e.toString());
             //  LOGGER.log(Level.WARNING, ex1.toString(), ex1);
         }
     }
 
-    /**
-     * isEOL: end of line?
-     * @return True if we've reached the end of the current line, False otherwise.
-     */
-    private boolean isEOL(){ return this.charOffset >= this.line.length(); }
-
     /**
      * isEOF: end of file?
      * @return True if the file char is EOF, False otherwise.
@@ -199,28 +363,16 @@ public class FileStream {
      * @return the next char in the file
      */
     private char mvFilePointer() {
-        /* check if the current line is EOF */
-        if (this.line == null) { return EOF; }
-
-        /* need to move to the next line */
-        if (isEOL()) {
-            this.charOffset = 0;
-            this.lineNum++;
-            /* make sure we can move to the next line */
-            try {
-                this.line = bReader.readLine();
-                /* catch and exceptions */
-            } catch (IOException ex) {
-                System.out.println(ex.toString());
-                ex.printStackTrace(System.out);
-                //  LOGGER.log(Level.WARNING, ex.toString(), ex);
-            }
-            return SPACE;
+        /* check if the file has already been closed */
+        if (this.reader == null) { return EOF; }
+        this.fileOffset = this.reader.getOffset();
+        char nxtChar = this.reader.read();
+        int line = this.reader.getLineNum();
+        /* a line break was read: the next character starts a line */
+        if (line != this.lineNum) {
+            this.lineStart = this.reader.getOffset();
+            this.lineNum = line;
         }
-        /* otherwise: */
-        char nxtChar = this.line.charAt(this.charOffset);
-        this.charOffset++;
-        /* return the next character */
         return nxtChar;
     }
 
@@ -230,9 +382,15 @@ public class FileStream {
      */
     public char nextChar() {
         /* check the push back stack first and return the character at the top of the stack */
-        if (!pbStack.empty()) { return this.pbStack.pop(); }
+        if (this.pbSize > 0) {
+            --this.pbSize;
+            remember(this.pbOffsets[this.pbSize], this.pbLines[this.pbSize], this.pbLineStarts[this.pbSize]);
+            return this.pbBuffer[this.pbSize];
+        }
+        /* the line changes on a line break: until then lineNum and lineStart are fileChar's */
+        remember(this.fileOffset, this.lineNum, this.lineStart);
         /* skip over whitespace */
-        if (Character.isWhitespace(this.fileChar) || this.fileChar == '\t') {
+        if (CharClass.isWhitespace(this.fileChar)) {
             skip();
             return SPACE;
         }
@@ -245,10 +403,13 @@ public class FileStream {
          * otherwise:
          */
         char old = this.fileChar;
-        int prevLine = this.lineNum;
         this.fileChar = mvFilePointer();
 
-        if (old != EOF && !VALID_CHAR.contains("" + old)) { throw LexerError.InvalidCharacter(prevLine, old); }
+        if (old != EOF && !CharClass.isValid(old)) {
+            raise(LexerError.InvalidCharacter(getCharLine(), old).at(getCharLine(), getCharColumn()));
+            /* diagnostics: the character is skipped like whitespace */
+            return SPACE;
+        }
         return old;
     }
 
@@ -260,11 +421,14 @@ public class FileStream {
         char runner = this.fileChar;
 
         /* skip if the current character is the beginning of a comment or whitespace */
-        while(runner == COMNT_START || Character.isWhitespace(runner)){
+        while(runner == COMNT_START || CharClass.isWhitespace(runner)){
             /* if the character is the start of a comment, skip it */
             if (runner == COMNT_START){ runner = jumpComment(); }
-            /* otherwise mv the file pointer */
-            else { runner =  mvFilePointer(); }
+            /* otherwise skip the rest of the blanks on the line and mv the file pointer */
+            else {
+                if (this.reader != null) { this.reader.skipBlanks(); }
+                runner = mvFilePointer();
+            }
         }
         /* set the file character */
         this.fileChar = runner;
@@ -276,31 +440,32 @@ public class FileStream {
     private char jumpComment() throws LexerError{
         /* save the start of the comment */
         int commentStart = this.lineNum;
+        int commentColumn = this.fileOffset - this.lineStart + 1;
 
         /* grab the next character */
         char runner = mvFilePointer();
 
-        try {
-            /* skip over comments */
-            while (runner != EOF) {
-                /* keep skipping until we get to a closed bracket */
-                if (runner == COMNT_END){
+        /* skip over comments */
+        while (runner != EOF) {
+            /* keep skipping until we get to a closed bracket */
+            if (runner == COMNT_END){
+                runner = mvFilePointer();
+                /* look ahead */
+                if(runner == COMNT_END){
+                    raise(LexerError.IllegalComment(commentStart, "{ ... } ... }").at(commentStart, commentColumn));
+                    /* diagnostics: the extra bracket is skipped */
                     runner = mvFilePointer();
-                    /* look ahead */
-                    if(runner == COMNT_END){ throw LexerError.IllegalComment(commentStart, "{ ... } ... }"); }
-                    break;
                 }
-                if (runner == COMNT_START){ throw LexerError.IllegalComment(commentStart, "{ ... { ... }"); }
-                /* continue to iterate through the file */
-                runner = mvFilePointer();
+                break;
             }
-            /* if the runner is EOF comment never ended */
-            if (runner == EOF){ throw LexerError.UnclosedComment(commentStart); }
-
-        } catch (LexerError error) {
-            // LOGGER.log(Level.SEVERE, error.toString(), error);
-            throw error;
+            /* diagnostics: a nested bracket is part of the comment */
+            if (runner == COMNT_START){ raise(LexerError.IllegalComment(commentStart, "{ ... { ... }").at(commentStart, commentColumn)); }
+            /* jump to the next bracket or line break (the reader is open until EOF) */
+            this.reader.skipCommentText();
+            runner = mvFilePointer();
         }
+        /* if the runner is EOF comment never ended */
+        if (runner == EOF){ raise(LexerError.UnclosedComment(commentStart).at(commentStart, commentColumn)); }
         return runner;
     }
 
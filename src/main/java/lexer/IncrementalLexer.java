@@ -0,0 +1,281 @@
+/*
+ * File: IncrementalLexer.java
+ *
+ * Desc: contains the IncrementalLexer class for
+ *       re-lexing a program after an edit.
+ *
+ */
+package main.java.lexer;
+
+import main.java.lexer.errors.LexerError;
+import main.java.token.SymbolInterner;
+import main.java.token.TokenBuffer;
+import main.java.token.TokenType;
+import java.util.Arrays;
+
+/**
+ * IncrementalLexer class
+ *
+ * Keeps the text of a program, the offset every line starts at and the
+ * Tokens of the text (the snapshot). An edit re-lexes from the last Token
+ * it cannot have changed, and stops as soon as a new Token starts where an
+ * old one did (moved by the edit) after the same type of Token: from there
+ * on the old Tokens are still right and are only moved. The new Tokens are
+ * spliced into the snapshot.
+ *
+ * A Token never starts inside a comment, so lexing can restart at any
+ * Token given the start of its line and the type of the Token before it
+ * (which decides if a '+' or '-' is unary, see OperatorMap.resolveAddop).
+ * The old Tokens after the edit keep their column, unless they are on the
+ * line the edit ends on.
+ */
+public class IncrementalLexer {
+
+    /*
+     * Lexing a Token reads past it up to the first character of the next one (an integer
+     * followed by a '.' up to the one after), plus the character after that and the '\n'
+     * of a "\r\n": the characters it looks at all come before the start of the Token two
+     * further on, plus LOOK_AHEAD.
+     */
+    private static final int LOOK_AHEAD = 3;
+
+    private static final char LF = '\n';
+    private static final char CR = '\r';
+
+    /*
+     * - name: a name for the program (used in messages)
+     * - symbols: the SymbolInterner of the compilation
+     * - text: the program text
+     * - lineStarts: the offset of the first character of every line (lineStarts[0] = 0)
+     * - lineCount: the number of lines
+     * - tokens: the Tokens of the text (null until the text lexes without errors)
+     */
+    private final String name;
+    private final SymbolInterner symbols;
+    private final StringBuilder text;
+    private int[] lineStarts;
+    private int lineCount;
+    private TokenBuffer tokens;
+
+    /**
+     * IncrementalLexer constructor
+     * @param name: a name for the program.
+     * @param text: the program text.
+     */
+    public IncrementalLexer(String name, CharSequence text){
+        this(name, text, new SymbolInterner());
+    }
+
+    /**
+     * IncrementalLexer constructor
+     * @param name: a name for the program.
+     * @param text: the program text.
+     * @param symbols: the SymbolInterner of the compilation.
+     */
+    public IncrementalLexer(String name, CharSequence text, SymbolInterner symbols){
+        this.name = name;
+        this.symbols = symbols;
+        this.text = new StringBuilder(text);
+        this.lineStarts = new int[64];
+        indexLines();
+    }
+
+    /**
+     * getText: getter method for the program text.
+     * @return the text, with every edit applied.
+     */
+    public String getText(){ return this.text.toString(); }
+
+    /**
+     * getLineCount: the number of lines in the text.
+     */
+    public int getLineCount(){ return this.lineCount; }
+
+    /**
+     * lineOf: the line number of a character.
+     * @param offset: the offset of the character.
+     * @return the line number (1 based).
+     */
+    public int lineOf(int offset){ return firstLineAfter(offset); }
+
+    /**
+     * getTokens: the Tokens of the text, lexing it if there is no snapshot yet.
+     * @return the TokenBuffer, ending with ENDOFFILE.
+     * @throws LexerError if the text has a lexical error.
+     */
+    public TokenBuffer getTokens(){
+        if(this.tokens == null){ this.tokens = lexAll(); }
+        return this.tokens;
+    }
+
+    /**
+     * edit: replaces part of the text and updates the Tokens.
+     * Note: the text is edited even if the new text has a lexical error. The
+     *       snapshot is then dropped, and the text is lexed again by the next call.
+     * @param offset: the offset of the first character replaced.
+     * @param removed: the number of characters replaced.
+     * @param inserted: the replacement.
+     * @return the number of Tokens lexed.
+     * @throws LexerError if the new text has a lexical error.
+     */
+    public int edit(int offset, int removed, String inserted){
+        if(offset < 0 || removed < 0 || offset + removed > this.text.length()){
+            throw new IndexOutOfBoundsException("Edit ["+offset+", "+(offset + removed)+") of "+this.text.length()+" characters");
+        }
+        int oldLines = this.lineCount;
+        int oldStart = this.lineStarts[lineOf(offset + removed) - 1];
+        this.text.replace(offset, offset + removed, inserted);
+        reindexLines(offset, removed, inserted.length());
+
+        if(this.tokens == null){ return getTokens().size(); }
+        /* the characters after the edit on its last line move along it */
+        int endLine = lineOf(offset + inserted.length());
+        int columnDelta = inserted.length() - removed - (this.lineStarts[endLine - 1] - oldStart);
+        try{ return relex(offset, removed, inserted.length(), this.lineCount - oldLines, endLine, columnDelta); }
+        catch(LexerError error){
+            this.tokens = null;
+            throw error;
+        }
+    }
+
+    /**
+     * lexAll: lexes the whole text.
+     */
+    private TokenBuffer lexAll(){
+        return new Tokenizer(new FileStream(new CharSequenceReader(this.text), this.name, 0), this.symbols).tokenizeAll();
+    }
+
+    /**
+     * relex: re-lexes the Tokens an edit may have changed and splices them in.
+     * @param offset: the offset of the edit.
+     * @param removed: the number of characters removed.
+     * @param inserted: the number of characters inserted.
+     * @param lineDelta: the change in the number of lines.
+     * @param endLine: the line the edit ends on.
+     * @param columnDelta: the change in the column of the characters after the edit on endLine.
+     * @return the number of Tokens lexed.
+     */
+    private int relex(int offset, int removed, int inserted, int lineDelta, int endLine, int columnDelta){
+        TokenBuffer old = this.tokens;
+        int delta = inserted - removed;
+
+        /* restart at the first Token whose look ahead reaches the edit */
+        int from = firstReaching(old, offset);
+        int start = 0;
+        TokenType prevType = null;
+        if(from > 0){
+            start = old.getOffset(from);
+            prevType = old.getType(from - 1);
+        }
+
+        int line = lineOf(start);
+        CharSequenceReader reader = new CharSequenceReader(this.text, start, line);
+        Tokenizer lexer = new Tokenizer(new FileStream(reader, this.name, this.lineStarts[line - 1]), this.symbols);
+        lexer.resumeAfter(prevType);
+
+        TokenBuffer part = new TokenBuffer(64);
+        int editEnd = offset + inserted;
+        int k = from;
+        while(lexer.lexInto(part)){
+            int j = part.size() - 1;
+            int at = part.getOffset(j);
+            if(at < editEnd){ continue; }
+
+            /* the first old Token after the edit that does not start before this one */
+            while(k < old.size() && (old.getOffset(k) < offset + removed || old.getOffset(k) + delta < at)){ k++; }
+            if(k < old.size() && old.getOffset(k) + delta == at){
+                TokenType newPrev = (j > 0) ? part.getType(j - 1) : prevType;
+                TokenType oldPrev = (k > 0) ? old.getType(k - 1) : null;
+                /* same place, same state: the rest of the old Tokens still hold */
+                if(newPrev == oldPrev){
+                    old.splice(from, k, part, j, delta, lineDelta, endLine, columnDelta);
+                    return part.size();
+                }
+            }
+        }
+        /* lexed up to ENDOFFILE */
+        old.splice(from, old.size(), part, part.size(), 0, 0, 0, 0);
+        return part.size();
+    }
+
+    /**
+     * firstReaching: the first Token whose look ahead reaches an offset.
+     * @return the Token index.
+     */
+    private static int firstReaching(TokenBuffer tokens, int offset){
+        int lo = 0, hi = Math.max(tokens.size() - 2, 0);
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(tokens.getOffset(mid + 2) + LOOK_AHEAD > offset){ hi = mid; }
+            else{ lo = mid + 1; }
+        }
+        return lo;
+    }
+
+    /**
+     * isLineStart: checks if a line starts at an offset (other than zero).
+     * Line breaks follow BufferedReader.readLine: "\n", "\r" or "\r\n".
+     */
+    private boolean isLineStart(int p){
+        char c = this.text.charAt(p - 1);
+        return c == LF || (c == CR && (p == this.text.length() || this.text.charAt(p) != LF));
+    }
+
+    /**
+     * indexLines: finds the start of every line of the text.
+     */
+    private void indexLines(){
+        this.lineCount = 0;
+        addLine(0);
+        for(int p = 1; p <= this.text.length(); p++){
+            if(isLineStart(p)){ addLine(p); }
+        }
+    }
+
+    private void addLine(int start){
+        if(this.lineCount == this.lineStarts.length){ this.lineStarts = Arrays.copyOf(this.lineStarts, this.lineCount * 2); }
+        this.lineStarts[this.lineCount++] = start;
+    }
+
+    /**
+     * reindexLines: updates the line starts after an edit (the text is already edited).
+     * Only the starts next to the edited characters can appear or disappear, the
+     * ones after them move with the edit.
+     */
+    private void reindexLines(int offset, int removed, int inserted){
+        int first = Math.max(offset, 1);
+        /* old starts that depend on the edited characters: [lo, hi) */
+        int lo = firstLineAfter(first - 1);
+        int hi = firstLineAfter(offset + removed + 1);
+
+        int last = Math.min(offset + inserted + 1, this.text.length());
+        int[] added = new int[Math.max(last - first + 1, 0)];
+        int count = 0;
+        for(int p = first; p <= last; p++){
+            if(isLineStart(p)){ added[count++] = p; }
+        }
+
+        int tail = this.lineCount - hi;
+        int newCount = lo + count + tail;
+        if(newCount > this.lineStarts.length){ this.lineStarts = Arrays.copyOf(this.lineStarts, Math.max(newCount, this.lineStarts.length * 2)); }
+        System.arraycopy(this.lineStarts, hi, this.lineStarts, lo + count, tail);
+        System.arraycopy(added, 0, this.lineStarts, lo, count);
+        for(int i = lo + count; i < newCount; i++){ this.lineStarts[i] += inserted - removed; }
+        this.lineCount = newCount;
+    }
+
+    /**
+     * firstLineAfter: the number of lines starting at or before an offset.
+     * @return the index of the first line starting after the offset.
+     */
+    private int firstLineAfter(int offset){
+        int lo = 0, hi = this.lineCount;
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(this.lineStarts[mid] <= offset){ lo = mid + 1; }
+            else{ hi = mid; }
+        }
+        return lo;
+    }
+
+} /* end of IncrementalLexer class */
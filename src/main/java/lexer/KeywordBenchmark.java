@@ -0,0 +1,122 @@
+/*
+ * File: KeywordBenchmark.java
+ *
+ * Desc: contains the point of execution
+ *       for measuring keyword lookups.
+ *
+ */
+package main.java.lexer;
+
+import main.java.token.TokenBuffer;
+import main.java.token.TokenKind;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * KeywordBenchmark class used for timing the KeywordMap.
+ *
+ * Usage: java KeywordBenchmark [file-path] [iterations (optional)]
+ *
+ * Every word of the file (identifiers and keywords, as written) is looked up
+ * from a char buffer, the way the lexer does: with the KeywordMap, and with
+ * the HashMap lookup it replaced (a String of the buffer, upper cased, hashed).
+ */
+public class KeywordBenchmark {
+
+    /* number of untimed passes used to warm up the JIT */
+    private static final int WARMUP = 20;
+    private static final int DEFAULT_ITERATIONS = 200;
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1 || args.length > 2){
+            System.out.println("Usage: java KeywordBenchmark [file-path] [iterations (optional)]");
+            return;
+        }
+        int iterations = (args.length == 2) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        char[][] words = words(args[0]);
+        KeywordMap keywords = new KeywordMap();
+        HashMap<String, TokenKind> map = hashMap(words, keywords);
+
+        System.out.println("Benchmarking keyword lookups on: "+args[0]+" ("+words.length+" words, "+iterations+" iterations)");
+        for(int k = 0; k < WARMUP; k++){ lookUp(words, keywords); lookUp(words, map); }
+
+        long start = System.nanoTime();
+        int found = 0;
+        for(int k = 0; k < iterations; k++){ found += lookUp(words, map); }
+        report("HashMap", found, System.nanoTime() - start, words.length, iterations);
+
+        start = System.nanoTime();
+        found = 0;
+        for(int k = 0; k < iterations; k++){ found += lookUp(words, keywords); }
+        report("KeywordMap", found, System.nanoTime() - start, words.length, iterations);
+    }
+
+    /**
+     * words: the identifiers and keywords of a file, as written.
+     */
+    private static char[][] words(String path) throws IOException {
+        String source = new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.ISO_8859_1);
+        TokenBuffer tokens = new Tokenizer(path).tokenizeAll();
+        List<char[]> words = new ArrayList<>();
+        for(int i = 0; i < tokens.size(); i++){
+            int offset = tokens.getOffset(i);
+            int length = tokens.getLength(i);
+            if(length > 0 && Character.isLetter(source.charAt(offset))){
+                words.add(source.substring(offset, offset + length).toCharArray());
+            }
+        }
+        return words.toArray(new char[0][]);
+    }
+
+    /**
+     * hashMap: the keywords of the words in a HashMap keyed by upper case spelling (as the former KeywordMap).
+     */
+    private static HashMap<String, TokenKind> hashMap(char[][] words, KeywordMap keywords){
+        HashMap<String, TokenKind> map = new HashMap<>();
+        for(char[] word : words){
+            TokenKind keyword = keywords.getKeyword(word, word.length);
+            if(keyword != null){ map.put(new String(word).toUpperCase(), keyword); }
+        }
+        return map;
+    }
+
+    /**
+     * lookUp: looks every word up in the KeywordMap.
+     * @return the number of keywords found.
+     */
+    private static int lookUp(char[][] words, KeywordMap keywords){
+        int found = 0;
+        for(char[] word : words){
+            if(keywords.getKeyword(word, word.length) != null){ found++; }
+        }
+        return found;
+    }
+
+    /**
+     * lookUp: looks every word up in the HashMap.
+     * @return the number of keywords found.
+     */
+    private static int lookUp(char[][] words, HashMap<String, TokenKind> map){
+        int found = 0;
+        for(char[] word : words){
+            if(map.get(new String(word, 0, word.length).toUpperCase()) != null){ found++; }
+        }
+        return found;
+    }
+
+    /**
+     * report: prints the timing of one lookup.
+     */
+    private static void report(String label, int found, long nanos, int words, int iterations){
+        System.out.printf("%-12s %8.2f ns/word %8d keywords/pass%n",
+                label,
+                (double) nanos / ((long) words * iterations),
+                found / iterations);
+    }
+}
@@ -1,54 +1,79 @@
 /*
  * File: KeywordMap.java
  *
- * Desc: a wrapper class for a HashMap.
+ * Desc: the keywords of the language, looked up
+ *       straight from the lexer's scan buffer.
  *
  */
 package main.java.lexer;
 
 import main.java.token.Token;
+import main.java.token.TokenKind;
 import main.java.token.TokenType;
-import java.util.HashMap;
 
 /**
  * KeywordMap class.
+ *
+ * The keyword set is fixed, so instead of a HashMap the lookup is a switch on
+ * the length and the first (upper cased) character, which leaves at most one
+ * candidate, compared character by character ignoring case. Nothing is folded
+ * into a new String, hashed or allocated.
+ *
+ * Note: a new keyword needs a slot in KEYWORDS, its TokenKind in the
+ *       constructor and a case in slot.
  * @author Luis Serazo
  */
 public class KeywordMap {
 
-    private HashMap<String, Token> keywords;
+    /* the spelling of every keyword, indexed by slot */
+    private static final char[][] KEYWORDS = {
+        "PROGRAM".toCharArray(), "BEGIN".toCharArray(), "END".toCharArray(), "VAR".toCharArray(),
+        "FUNCTION".toCharArray(), "PROCEDURE".toCharArray(), "RESULT".toCharArray(), "INTEGER".toCharArray(),
+        "REAL".toCharArray(), "ARRAY".toCharArray(), "OF".toCharArray(), "IF".toCharArray(),
+        "THEN".toCharArray(), "ELSE".toCharArray(), "WHILE".toCharArray(), "DO".toCharArray(),
+        "NOT".toCharArray(), "OR".toCharArray(), "DIV".toCharArray(), "MOD".toCharArray(),
+        "AND".toCharArray()
+    };
+
+    /* the slots of the KEYWORDS */
+    private static final int PROGRAM = 0, BEGIN = 1, END = 2, VAR = 3, FUNCTION = 4, PROCEDURE = 5,
+            RESULT = 6, INTEGER = 7, REAL = 8, ARRAY = 9, OF = 10, IF = 11, THEN = 12, ELSE = 13,
+            WHILE = 14, DO = 15, NOT = 16, OR = 17, DIV = 18, MOD = 19, AND = 20;
+
+    /* the TokenKind of every keyword, indexed by slot */
+    private final TokenKind[] kinds;
 
     /**
      * Keyword map constructor.
      * Note: constructor is package-private.
      */
     KeywordMap(){
-        this.keywords = new HashMap<>();
+        this.kinds = new TokenKind[KEYWORDS.length];
 
-        /* populate the hashmap */
-        keywords.put("PROGRAM", new Token(TokenType.PROGRAM, null));
-        keywords.put("BEGIN", new Token(TokenType.BEGIN, null));
-        keywords.put("END", new Token(TokenType.END, null));
-        keywords.put("VAR", new Token(TokenType.VAR, null));
-        keywords.put("FUNCTION", new Token(TokenType.FUNCTION, null));
-        keywords.put("PROCEDURE", new Token(TokenType.PROCEDURE, null));
-        keywords.put("RESULT", new Token(TokenType.RESULT, null));
-        keywords.put("INTEGER", new Token(TokenType.INTEGER, null));
-        keywords.put("REAL", new Token(TokenType.REAL, null));
-        keywords.put("ARRAY", new Token(TokenType.ARRAY, null));
-        keywords.put("OF", new Token(TokenType.OF, null));
-        keywords.put("IF", new Token(TokenType.IF, null));
-        keywords.put("THEN", new Token(TokenType.THEN, null));
-        keywords.put("ELSE", new Token(TokenType.ELSE, null));
-        keywords.put("WHILE", new Token(TokenType.WHILE, null));
-        keywords.put("DO", new Token(TokenType.DO, null));
-        keywords.put("NOT", new Token(TokenType.NOT, null, Token.OperatorType.NOT));
+        /* populate the table */
+        kinds[PROGRAM] = new TokenKind(TokenType.PROGRAM, null);
+        kinds[BEGIN] = new TokenKind(TokenType.BEGIN, null);
+        kinds[END] = new TokenKind(TokenType.END, null);
+        kinds[VAR] = new TokenKind(TokenType.VAR, null);
+        kinds[FUNCTION] = new TokenKind(TokenType.FUNCTION, null);
+        kinds[PROCEDURE] = new TokenKind(TokenType.PROCEDURE, null);
+        kinds[RESULT] = new TokenKind(TokenType.RESULT, null);
+        kinds[INTEGER] = new TokenKind(TokenType.INTEGER, null);
+        kinds[REAL] = new TokenKind(TokenType.REAL, null);
+        kinds[ARRAY] = new TokenKind(TokenType.ARRAY, null);
+        kinds[OF] = new TokenKind(TokenType.OF, null);
+        kinds[IF] = new TokenKind(TokenType.IF, null);
+        kinds[THEN] = new TokenKind(TokenType.THEN, null);
+        kinds[ELSE] = new TokenKind(TokenType.ELSE, null);
+        kinds[WHILE] = new TokenKind(TokenType.WHILE, null);
+        kinds[DO] = new TokenKind(TokenType.DO, null);
+        kinds[NOT] = new TokenKind(TokenType.NOT, null, Token.OperatorType.NOT);
 
         /* special operators */
-        keywords.put("OR", new Token(TokenType.ADDOP, "3", Token.OperatorType.OR));
-        keywords.put("DIV", new Token(TokenType.MULOP, "3", Token.OperatorType.DIV));
-        keywords.put("MOD", new Token(TokenType.MULOP, "4", Token.OperatorType.MOD));
-        keywords.put("AND", new Token(TokenType.MULOP, "5", Token.OperatorType.AND));
+        kinds[OR] = new TokenKind(TokenType.ADDOP, "3", Token.OperatorType.OR);
+        kinds[DIV] = new TokenKind(TokenType.MULOP, "3", Token.OperatorType.DIV);
+        kinds[MOD] = new TokenKind(TokenType.MULOP, "4", Token.OperatorType.MOD);
+        kinds[AND] = new TokenKind(TokenType.MULOP, "5", Token.OperatorType.AND);
     }
 
     /**
@@ -57,21 +82,94 @@ public class KeywordMap {
      * @return True, if the buffer is a keyword, False otherwise.
      */
     public boolean isKeyword(String buffer){
-        String upperCase = buffer.toUpperCase();
-        return keywords.containsKey(upperCase);
+        return getKeyword(buffer) != null;
     }
 
     /**
-     * getKeyword: returns the correct keyword from the hashmap.
+     * getKeyword: returns the correct keyword from the table.
      * @param buffer: the accumulated keyword as a string.
-     * @param lineNum: the line number where the keyword began in the file.
-     * @return a keyword Token matching the buffer.
+     * @return the keyword TokenKind matching the buffer (null if it is not a keyword).
+     */
+    public TokenKind getKeyword(String buffer){
+        return getKeyword(buffer.toCharArray(), buffer.length());
+    }
+
+    /**
+     * getKeyword: returns the keyword held in a char buffer, in any case.
+     * @param chars: the buffer (the lexer's scan buffer).
+     * @param length: the number of characters used.
+     * @return the keyword TokenKind matching the characters (null if they are not a keyword).
      */
-    public Token getKeyword(String buffer, int lineNum){
-        buffer = buffer.toUpperCase();
-        Token keywordToken = keywords.get(buffer);
-        keywordToken.setLineNum(lineNum);
-        return keywordToken;
+    public TokenKind getKeyword(char[] chars, int length){
+        int slot = slot(chars, length);
+        return (slot >= 0 && matches(KEYWORDS[slot], chars, length)) ? kinds[slot] : null;
     }
 
-} /* end of KeywordMap class */
\ No newline at end of file
+    /**
+     * slot: the only keyword the characters can be, by length and first characters.
+     * @return the slot of the candidate, -1 if there is none.
+     */
+    private static int slot(char[] chars, int length){
+        switch(length){
+            case 2:
+                switch(upper(chars[0])){
+                    case 'O': return (upper(chars[1]) == 'F') ? OF : OR;
+                    case 'I': return IF;
+                    case 'D': return DO;
+                    default: return -1;
+                }
+            case 3:
+                switch(upper(chars[0])){
+                    case 'E': return END;
+                    case 'V': return VAR;
+                    case 'N': return NOT;
+                    case 'D': return DIV;
+                    case 'M': return MOD;
+                    case 'A': return AND;
+                    default: return -1;
+                }
+            case 4:
+                switch(upper(chars[0])){
+                    case 'R': return REAL;
+                    case 'T': return THEN;
+                    case 'E': return ELSE;
+                    default: return -1;
+                }
+            case 5:
+                switch(upper(chars[0])){
+                    case 'B': return BEGIN;
+                    case 'A': return ARRAY;
+                    case 'W': return WHILE;
+                    default: return -1;
+                }
+            case 6: return (upper(chars[0]) == 'R') ? RESULT : -1;
+            case 7:
+                switch(upper(chars[0])){
+                    case 'P': return PROGRAM;
+                    case 'I': return INTEGER;
+                    default: return -1;
+                }
+            case 8: return (upper(chars[0]) == 'F') ? FUNCTION : -1;
+            case 9: return (upper(chars[0]) == 'P') ? PROCEDURE : -1;
+            default: return -1;
+        }
+    }
+
+    /**
+     * matches: compares the characters to a keyword, ignoring case.
+     * @param keyword: the keyword spelling (upper case, as long as the characters).
+     */
+    private static boolean matches(char[] keyword, char[] chars, int length){
+        for(int i = 0; i < length; i++){
+            if(upper(chars[i]) != keyword[i]){ return false; }
+        }
+        return true;
+    }
+
+    /**
+     * upper: folds an ASCII letter to upper case.
+     * Note: clearing the case bit maps no other character onto a letter.
+     */
+    private static char upper(char chr){ return (char)(chr & ~0x20); }
+
+} /* end of KeywordMap class */
@@ -0,0 +1,184 @@
+/*
+ * File: LexBenchmark.java
+ *
+ * Desc: contains the point of execution
+ *       for measuring lexer throughput.
+ *
+ */
+package main.java.lexer;
+
+import main.java.token.SymbolInterner;
+import main.java.token.TokenBuffer;
+import main.java.token.TokenType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * LexBenchmark class used for timing the lexer.
+ *
+ * Usage: java LexBenchmark [file-path] [iterations (optional)] [copies (optional)]
+ *
+ * With copies, the file is repeated that many times into a temporary file first
+ * (e.g. to scale large_program.pas up to a few megabytes).
+ */
+public class LexBenchmark {
+
+    /* number of untimed passes used to warm up the JIT */
+    private static final int WARMUP = 5;
+    private static final int DEFAULT_ITERATIONS = 20;
+    /* single character edits timed per pass */
+    private static final int EDITS_PER_PASS = 100;
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1 || args.length > 3){
+            System.out.println("Usage: java LexBenchmark [file-path] [iterations (optional)] [copies (optional)]");
+            return;
+        }
+        int iterations = (args.length >= 2) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        String path = (args.length == 3) ? scale(args[0], Integer.parseInt(args[2])) : args[0];
+        long bytes = new File(path).length();
+
+        System.out.println("Benchmarking lexer on: "+args[0]+" ("+bytes+" bytes, "+iterations+" iterations)");
+        for(FileStream.Backend backend : FileStream.Backend.values()){
+            for(int k = 0; k < WARMUP; k++){ tokenize(path, backend); }
+
+            long tokens = 0;
+            long start = System.nanoTime();
+            for(int k = 0; k < iterations; k++){ tokens += tokenize(path, backend); }
+            report(backend.toString(), tokens, System.nanoTime() - start, bytes, iterations);
+
+            /* same backend, lexed into a TokenBuffer */
+            for(int k = 0; k < WARMUP; k++){ new Tokenizer(path, backend).tokenizeAll(); }
+
+            tokens = 0;
+            start = System.nanoTime();
+            for(int k = 0; k < iterations; k++){ tokens += new Tokenizer(path, backend).tokenizeAll().size(); }
+            report(backend+"+buffer", tokens, System.nanoTime() - start, bytes, iterations);
+        }
+
+        /* span recording on and off, alternating passes so that both see the same machine */
+        for(int k = 0; k < WARMUP; k++){ spans(path, true); spans(path, false); }
+
+        long[] spanTokens = new long[2];
+        long[] spanNanos = new long[2];
+        for(int k = 0; k < iterations; k++){
+            for(int on = 0; on < 2; on++){
+                long start = System.nanoTime();
+                spanTokens[on] += spans(path, on == 1);
+                spanNanos[on] += System.nanoTime() - start;
+            }
+        }
+        report("SPANS off", spanTokens[0], spanNanos[0], bytes, iterations);
+        report("SPANS on", spanTokens[1], spanNanos[1], bytes, iterations);
+        System.out.printf("%-18s %+10.1f %%%n", "SPANS cost", 100.0 * (spanNanos[1] - spanNanos[0]) / spanNanos[0]);
+
+        /* the ParallelLexer, doubling the threads up to the number of cores */
+        int cores = Runtime.getRuntime().availableProcessors();
+        for(int threads = 1; threads <= Math.max(cores, 2); threads *= 2){
+            for(int k = 0; k < WARMUP; k++){ new ParallelLexer(path).tokenize(threads); }
+
+            long tokens = 0;
+            long start = System.nanoTime();
+            for(int k = 0; k < iterations; k++){ tokens += new ParallelLexer(path).tokenize(threads).size(); }
+            report("PARALLEL x"+threads, tokens, System.nanoTime() - start, bytes, iterations);
+        }
+
+        /* through a TokenCache: lexed by the first pass, read back by the others */
+        Path cacheDir = Files.createTempDirectory("lexcache");
+        TokenCache cache = new TokenCache(cacheDir.toString(), Long.MAX_VALUE);
+        for(int k = 0; k < WARMUP; k++){ cache.tokenize(path, new SymbolInterner()); }
+
+        long cached = 0;
+        long cacheStart = System.nanoTime();
+        for(int k = 0; k < iterations; k++){ cached += cache.tokenize(path, new SymbolInterner()).size(); }
+        report("CACHED", cached, System.nanoTime() - cacheStart, bytes, iterations);
+        System.out.println(cache);
+        clear(cacheDir);
+
+        /* single character edits through the IncrementalLexer, against the full passes above */
+        IncrementalLexer incremental = new IncrementalLexer(path, new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.ISO_8859_1));
+        int edits = iterations * EDITS_PER_PASS;
+        for(int k = 0; k < WARMUP * EDITS_PER_PASS; k++){ editAndUndo(incremental, k); }
+
+        long tokens = 0;
+        long start = System.nanoTime();
+        for(int k = 0; k < edits; k++){ tokens += editAndUndo(incremental, k); }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-18s %10.4f ms/edit %10.1f tokens/edit%n", "INCREMENTAL", seconds * 1000 / (2 * edits), tokens / (2.0 * edits));
+    }
+
+    /**
+     * editAndUndo: inserts a space before a Token and removes it again.
+     * @param k: picks the Token (spread over the file).
+     * @return the number of Tokens lexed by both edits.
+     */
+    private static int editAndUndo(IncrementalLexer lexer, int k){
+        TokenBuffer tokens = lexer.getTokens();
+        int offset = tokens.getOffset((int)((k * 7919L) % tokens.size()));
+        return lexer.edit(offset, 0, " ") + lexer.edit(offset, 1, "");
+    }
+
+    /**
+     * clear: deletes a temporary directory and the files in it.
+     */
+    private static void clear(Path directory) throws IOException {
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+            for(Path file : files){ Files.delete(file); }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * scale: repeats a file into a temporary file.
+     * @return the path of the temporary file (deleted on exit).
+     */
+    private static String scale(String path, int copies) throws IOException {
+        byte[] source = Files.readAllBytes(new File(path).toPath());
+        Path scaled = Files.createTempFile("lexbench", ".pas");
+        scaled.toFile().deleteOnExit();
+        for(int k = 0; k < copies; k++){ Files.write(scaled, source, StandardOpenOption.APPEND); }
+        return scaled.toString();
+    }
+
+    /**
+     * report: prints the timing of one configuration.
+     */
+    private static void report(String label, long tokens, long nanos, long bytes, int iterations){
+        double seconds = nanos / 1e9;
+        System.out.printf("%-18s %10.2f ms/pass %12.0f tokens/s %8.2f MB/s%n",
+                label,
+                seconds * 1000 / iterations,
+                tokens / seconds,
+                (bytes * iterations) / seconds / (1024 * 1024));
+    }
+
+    /**
+     * spans: lexes the whole file into a TokenBuffer, recording spans or not.
+     * @return the number of tokens produced.
+     */
+    private static long spans(String path, boolean on){
+        Tokenizer tknz = new Tokenizer(path, FileStream.DEFAULT_BACKEND);
+        tknz.recordSpans(on);
+        return tknz.tokenizeAll().size();
+    }
+
+    /**
+     * tokenize: runs the lexer over the whole file.
+     * @return the number of tokens produced.
+     */
+    private static long tokenize(String path, FileStream.Backend backend){
+        Tokenizer tknz = new Tokenizer(path, backend);
+        long count = 0;
+        do {
+            tknz.getNextToken();
+            count++;
+        } while(tknz.prevTokenT() != TokenType.ENDOFFILE);
+        return count;
+    }
+}
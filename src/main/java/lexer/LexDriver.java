@@ -6,7 +6,8 @@
  *
  */
 package main.java.lexer;
-import main.java.token.TokenType;
+import main.java.lexer.errors.Diagnostics;
+import main.java.token.SymbolInterner;
 
 /**
  * LexDriver class used for testing the lexer.
@@ -19,12 +20,18 @@ public class LexDriver {
         if(args.length == 1){
             System.out.println("Tokenizing code in: "+args[0]);
 
-            Tokenizer tknz = new Tokenizer(args[0]);
+            new Tokenizer(args[0]).stream().forEach(System.out::println);
 
-            do {
-                System.out.println(tknz.getNextToken());
-            } while(tknz.prevTokenT() != TokenType.ENDOFFILE);
+        }
+        /* -d: report every lexical error instead of stopping at the first one */
+        else if(args.length == 2 && args[0].equals("-d")){
+            System.out.println("Tokenizing code in: "+args[1]);
+
+            Diagnostics diagnostics = new Diagnostics();
+            Tokenizer tknz = new Tokenizer(Source.file(args[1], FileStream.DEFAULT_BACKEND), new SymbolInterner(), diagnostics);
+            tknz.stream().forEach(System.out::println);
 
+            diagnostics.print(System.out);
         }
         else if(args.length < 1){
             System.out.println("Too Few Arguments Given To: java LexDriver");
@@ -0,0 +1,115 @@
+/*
+ * File: LineReader.java
+ *
+ * Desc: contains the BufferedReader backed SourceReader.
+ *
+ */
+package main.java.lexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * LineReader class
+ *
+ * Default FileStream backend: reads the source through a
+ * BufferedReader, one String per line.
+ *
+ * Note: readLine drops the line terminator, so offsets count every
+ *       line break as a single character.
+ */
+class LineReader implements SourceReader {
+
+    private static final char COMNT_START = '{';
+    private static final char COMNT_END = '}';
+
+    /*
+     * - bReader: a BufferedReader for reading the file
+     * - line: the actual line being analyzed
+     * - charOffset: the character offset for the character being obtained
+     * - lineNum: the current line number being analyzed
+     * - offset: the number of characters read so far
+     */
+    private BufferedReader bReader;
+    private String line;
+    private int charOffset;
+    private int lineNum;
+    private int offset;
+
+    /**
+     * LineReader constructor
+     * @param bReader: the reader over the source.
+     * @throws IOException if the first line cannot be read.
+     */
+    LineReader(BufferedReader bReader) throws IOException {
+        this.bReader = bReader;
+        this.line = bReader.readLine();
+        this.charOffset = 0;
+        this.lineNum = 1;
+    }
+
+    /**
+     * read: method for obtaining the next character in the file.
+     * @return the next char in the file
+     */
+    public char read() {
+        /* check if the current line is EOF */
+        if (this.line == null) { return EOF; }
+
+        /* need to move to the next line */
+        this.offset++;
+        if (this.charOffset >= this.line.length()) {
+            this.charOffset = 0;
+            this.lineNum++;
+            /* make sure we can move to the next line */
+            try {
+                this.line = bReader.readLine();
+                /* catch and exceptions */
+            } catch (IOException ex) {
+                System.out.println(ex.toString());
+            }
+            return SPACE;
+        }
+        /* otherwise: return the next character */
+        return this.line.charAt(this.charOffset++);
+    }
+
+    public void skipBlanks() {
+        if (this.line == null) { return; }
+        int k = this.charOffset;
+        while (k < this.line.length() && CharClass.isWhitespace(this.line.charAt(k))) { k++; }
+        moveTo(k);
+    }
+
+    public void skipCommentText() {
+        if (this.line == null) { return; }
+        /* the line holds no line breaks: the comment text ends at the next bracket or the end of the line */
+        int end = this.line.length();
+        int k = this.line.indexOf(COMNT_START, this.charOffset);
+        if (k >= 0) { end = k; }
+        k = this.line.indexOf(COMNT_END, this.charOffset);
+        if (k >= 0 && k < end) { end = k; }
+        moveTo(end);
+    }
+
+    /**
+     * moveTo: moves to a character of the current line.
+     * @param k: the index of the character in the line.
+     */
+    private void moveTo(int k) {
+        this.offset += k - this.charOffset;
+        this.charOffset = k;
+    }
+
+    public int getLineNum() { return this.lineNum; }
+
+    public int getOffset() { return this.offset; }
+
+    public String getLine() { return this.line; }
+
+    public void close() throws IOException {
+        this.line = null;
+        this.bReader.close();
+    }
+
+} /* end of LineReader class */
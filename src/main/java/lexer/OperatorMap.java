@@ -7,6 +7,7 @@
 package main.java.lexer;
 
 import main.java.token.Token;
+import main.java.token.TokenKind;
 import main.java.token.TokenType;
 import java.util.HashMap;
 
@@ -15,33 +16,33 @@ import java.util.HashMap;
  * @author Luis Serazo
  */
 public class OperatorMap {
-    /* Hash aggregates used as dictionaries */
-    private HashMap<Character, Token> simpleOp;
-    private HashMap<String, Token> specialOP;
+    /* simple operators indexed by character, special operators by lexeme */
+    private final TokenKind[] simpleOp;
+    private final HashMap<String, TokenKind> specialOP;
 
     /**
      * OperatorMap Constructor
      */
     OperatorMap(){
-        this.simpleOp = new HashMap<>();
+        this.simpleOp = new TokenKind[CharClass.SIZE];
         this.specialOP = new HashMap<>();
 
-        /* populate the map */
-        simpleOp.put('*', new Token(TokenType.MULOP, "1", Token.OperatorType.MULTIPLY));
-        simpleOp.put('/', new Token(TokenType.MULOP, "2", Token.OperatorType.DIVIDE));
-        simpleOp.put('=', new Token(TokenType.RELOP, "1", Token.OperatorType.EQ));
-        simpleOp.put('+', new Token(TokenType.ADDOP, "1", Token.OperatorType.ADD));
-        simpleOp.put('-', new Token(TokenType.ADDOP, "2", Token.OperatorType.SUBTRACT));
-        simpleOp.put('<', new Token(TokenType.RELOP, "3", Token.OperatorType.LESS_THAN));
-        simpleOp.put('>', new Token(TokenType.RELOP, "4", Token.OperatorType.GREATER_THAN));
+        /* populate the tables */
+        simpleOp['*'] = new TokenKind(TokenType.MULOP, "1", Token.OperatorType.MULTIPLY);
+        simpleOp['/'] = new TokenKind(TokenType.MULOP, "2", Token.OperatorType.DIVIDE);
+        simpleOp['='] = new TokenKind(TokenType.RELOP, "1", Token.OperatorType.EQ);
+        simpleOp['+'] = new TokenKind(TokenType.ADDOP, "1", Token.OperatorType.ADD);
+        simpleOp['-'] = new TokenKind(TokenType.ADDOP, "2", Token.OperatorType.SUBTRACT);
+        simpleOp['<'] = new TokenKind(TokenType.RELOP, "3", Token.OperatorType.LESS_THAN);
+        simpleOp['>'] = new TokenKind(TokenType.RELOP, "4", Token.OperatorType.GREATER_THAN);
         /* populate the map with double take operators */
-        specialOP.put(":=", new Token(TokenType.ASSIGNOP, null));
-        specialOP.put("..", new Token(TokenType.DOUBLEDOT, null));
-        specialOP.put("<=", new Token(TokenType.RELOP, "5", Token.OperatorType.LEQ));
-        specialOP.put(">=", new Token(TokenType.RELOP, "6", Token.OperatorType.GEQ));
-        specialOP.put("<>", new Token(TokenType.RELOP, "2", Token.OperatorType.NEQ));
-        specialOP.put("^+", new Token(TokenType.UNARYPLUS, null));
-        specialOP.put("^-", new Token(TokenType.UNARYMINUS, null));
+        specialOP.put(":=", new TokenKind(TokenType.ASSIGNOP, null));
+        specialOP.put("..", new TokenKind(TokenType.DOUBLEDOT, null));
+        specialOP.put("<=", new TokenKind(TokenType.RELOP, "5", Token.OperatorType.LEQ));
+        specialOP.put(">=", new TokenKind(TokenType.RELOP, "6", Token.OperatorType.GEQ));
+        specialOP.put("<>", new TokenKind(TokenType.RELOP, "2", Token.OperatorType.NEQ));
+        specialOP.put("^+", new TokenKind(TokenType.UNARYPLUS, null));
+        specialOP.put("^-", new TokenKind(TokenType.UNARYMINUS, null));
     }
 
     /**
@@ -49,7 +50,7 @@ public class OperatorMap {
      * @param chr: the character being investigated.
      * @return True, if the character can be determined right away, False otherwise.
      */
-    public boolean isSimpleOp(char chr){ return (chr == '*' || chr == '/' || chr == '='); }
+    public boolean isSimpleOp(char chr){ return CharClass.isSimpleOp(chr); }
 
     /**
      * isSpecialOP: indicates if a character is an operator that needs some investigation
@@ -57,92 +58,89 @@ public class OperatorMap {
      * @param chr: the character being investigated.
      * @return True, if the character cannot be determined right away, False otherwise.
      */
-    public boolean isSpecialOP(char chr){
-        return (chr == ':' || chr == '.' || chr == '+' || chr == '-' || chr == '<' || chr == '>');
-    }
+    public boolean isSpecialOP(char chr){ return CharClass.isSpecialOp(chr); }
 
     /**
      * isBinaryAddop: checks if the previous TokenType is a binary addition operator.
      * @return True if meets the conditions for a binary operator, False otherwise.
      */
-    private boolean isBinaryAddop(Token prevToken) {
-        return ((prevToken.getTokenType() == TokenType.RIGHTPAREN) ||
-                (prevToken.getTokenType() == TokenType.RIGHTBRACKET) ||
-                (prevToken.getTokenType() == TokenType.IDENTIFIER) ||
-                (prevToken.getTokenType() == TokenType.INTCONSTANT) ||
-                (prevToken.getTokenType() == TokenType.REALCONSTANT));
+    private boolean isBinaryAddop(TokenType prevType) {
+        return ((prevType == TokenType.RIGHTPAREN) ||
+                (prevType == TokenType.RIGHTBRACKET) ||
+                (prevType == TokenType.IDENTIFIER) ||
+                (prevType == TokenType.INTCONSTANT) ||
+                (prevType == TokenType.REALCONSTANT));
     }
 
     /**
      * getSimpleOP: returns a simple operator from the hashmap.
      * @param op: the operator in question.
-     * @param lineNum: the line number where the operator occurs in the file.
-     * @return an operator Token.
+     * @return an operator TokenKind.
      */
-    protected Token getSimpleOP(char op, int lineNum){
-        Token opToken = this.simpleOp.get(op);
-        opToken.setLineNum(lineNum);
-        return opToken;
+    protected TokenKind getSimpleOP(char op){
+        return this.simpleOp[op];
     }
 
     /**
      * getSpecialOP: returns one of the "complex" operators from the hashmap.
      * @param op: the operator in question
-     * @param lineNum: the line number where the operator starts in the file.
-     * @return an operator Token.
+     * @return an operator TokenKind.
      */
-    private Token getSpecialOP(String op, int lineNum){
-        Token opToken = this.specialOP.get(op);
-        opToken.setLineNum(lineNum);
-        return opToken;
+    private TokenKind getSpecialOP(String op){
+        return this.specialOP.get(op);
+    }
+
+    /**
+     * resolveAddop: a '+' or '-' is a binary operator after an operand, unary otherwise.
+     * @param op: '+' or '-'.
+     * @param prevType: the type of the previous Token created (used by isBinaryAddop)
+     * @return an ADDOP, UNARYPLUS or UNARYMINUS TokenKind.
+     */
+    public TokenKind resolveAddop(char op, TokenType prevType){
+        if(isBinaryAddop(prevType)){ return getSimpleOP(op); }
+        return getSpecialOP((op == '+') ? "^+" : "^-");
     }
 
     /**
      * resolveSpecialOp: uses look ahead and push back to determine the operator.
      * @param op: the first char of the operator.
-     * @param prevToken: the previous Token created (used by isBinaryAddop)
+     * @param prevType: the type of the previous Token created (used by isBinaryAddop)
      * @param fStream: the fileStream --> control passed from the Tokenizer.
      * @param punctuation: the Tokenizer punctuation map.
-     * @return a operator Token.
+     * @return a operator TokenKind.
      *
      * Note: the default is null but this should not be a problem, since we only enter this
      *       function if isSpecialOp returns true. Thus, one of the cases must match.
      */
-    public Token resolveSpecialOp(char op, Token prevToken, FileStream fStream, PunctuationMap punctuation){
-        int lineNum = fStream.getLineNum();
+    public TokenKind resolveSpecialOp(char op, TokenType prevType, FileStream fStream, PunctuationMap punctuation){
         char next = fStream.nextChar();
         switch(op){
             case ':':
-                if(next == '='){ return getSpecialOP(":=", lineNum); }
+                if(next == '='){ return getSpecialOP(":="); }
                 fStream.pushBack(next);
-                return punctuation.getPunc(':', lineNum);
+                return punctuation.getPunc(':');
                 
             case '.':
-                if(next == '.'){ return getSpecialOP("..", lineNum); }
+                if(next == '.'){ return getSpecialOP(".."); }
                // fStream.popPushBack(); /* may be able to get rid of this? Doesn't hurt to add it though */
                 fStream.pushBack(next);
-                return punctuation.getPunc('.', lineNum); // end marker
+                return punctuation.getPunc('.'); // end marker
             
             case '+':
-                fStream.pushBack(next);
-                if(isBinaryAddop(prevToken)){ return getSimpleOP('+', lineNum); }
-                return getSpecialOP("^+", lineNum);
-                
             case '-':
                 fStream.pushBack(next);
-                if(isBinaryAddop(prevToken)){ return getSimpleOP('-', lineNum); }
-                return getSpecialOP("^-", lineNum);
+                return resolveAddop(op, prevType);
             
             case '<':
-                if(next == '>'){ return getSpecialOP("<>", lineNum); }
-                if(next == '='){ return getSpecialOP("<=", lineNum); }
+                if(next == '>'){ return getSpecialOP("<>"); }
+                if(next == '='){ return getSpecialOP("<="); }
                 fStream.pushBack(next);
-                return getSimpleOP('<', lineNum);
+                return getSimpleOP('<');
                 
             case '>': /* must be followed by a number? or identifier? Or is this not a part of the lexer */
-                if(next == '='){ return getSpecialOP(">=", lineNum); }
+                if(next == '='){ return getSpecialOP(">="); }
                 fStream.pushBack(next);
-                return getSimpleOP('>', lineNum);
+                return getSimpleOP('>');
                 
             default:
                 return null; /* should never reach here */
@@ -0,0 +1,234 @@
+/*
+ * File: ParallelLexer.java
+ *
+ * Desc: contains the ParallelLexer class for
+ *       lexing a large file on several threads.
+ *
+ */
+package main.java.lexer;
+
+import main.java.token.SymbolInterner;
+import main.java.token.TokenBuffer;
+import main.java.token.TokenKind;
+import main.java.token.TokenType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelLexer class
+ *
+ * Splits a memory-mapped file into chunks, lexes every chunk into its own
+ * TokenBuffer on a thread pool and concatenates the buffers in order. The
+ * result is the same TokenBuffer the MAPPED Tokenizer builds with tokenizeAll.
+ *
+ * Chunks are cut at the start of a line outside of any comment, so no
+ * lexeme, comment or push back ever spans two chunks. The one piece of
+ * state that does cross a cut is the previous Token, which decides if a
+ * leading '+' or '-' is binary or unary: it is fixed up while concatenating.
+ */
+public class ParallelLexer {
+
+    /* chunks are never smaller than this (in bytes) */
+    private static final int DEFAULT_MIN_CHUNK = 64 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte COMNT_START = '{';
+    private static final byte COMNT_END = '}';
+
+    /*
+     * - filePath: the path to the file
+     * - symbols: the SymbolInterner of the compilation
+     * - operators: resolves '+' and '-' at the start of a chunk
+     * - minChunk: the smallest chunk worth a thread
+     */
+    private final String filePath;
+    private final SymbolInterner symbols;
+    private final OperatorMap operators;
+    private int minChunk = DEFAULT_MIN_CHUNK;
+
+    /**
+     * ParallelLexer constructor
+     * @param filePath: the path to the file.
+     */
+    public ParallelLexer(String filePath){
+        this(filePath, new SymbolInterner());
+    }
+
+    /**
+     * ParallelLexer constructor
+     * @param filePath: the path to the file.
+     * @param symbols: the SymbolInterner of the compilation.
+     */
+    public ParallelLexer(String filePath, SymbolInterner symbols){
+        this.filePath = filePath;
+        this.symbols = symbols;
+        this.operators = new OperatorMap();
+    }
+
+    /**
+     * setMinChunk: sets the smallest chunk size (in bytes).
+     */
+    void setMinChunk(int minChunk){ this.minChunk = Math.max(minChunk, 1); }
+
+    /**
+     * tokenize: lexes the whole file.
+     * @param threads: the number of threads (and at most the number of chunks).
+     * @return every Token of the file, ending with ENDOFFILE.
+     * @throws IOException if the file cannot be mapped.
+     * @throws LexerError the first lexical error in the file, as the Tokenizer would.
+     */
+    public TokenBuffer tokenize(int threads) throws IOException {
+        ByteBuffer bytes = map(new File(filePath));
+        List<Chunk> chunks = split(bytes, Math.max(threads, 1));
+
+        /* a single chunk needs no thread */
+        if(chunks.size() == 1){ return lex(bytes, chunks.get(0)); }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks.size()));
+        try{
+            List<Future<TokenBuffer>> parts = new ArrayList<>();
+            for(Chunk chunk : chunks){ parts.add(pool.submit(() -> lex(bytes, chunk))); }
+            return concat(parts);
+        }
+        finally{ pool.shutdownNow(); }
+    }
+
+    /**
+     * map: memory-maps a file read-only.
+     * Note: the mapping stays valid after the channel is closed.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE){ throw new IOException("File too large to map: " + file.getPath()); }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Chunk: a range of lines [start, end) beginning on line lineNum.
+     */
+    private static final class Chunk {
+        final int start;
+        final int end;
+        final int lineNum;
+
+        Chunk(int start, int end, int lineNum){
+            this.start = start;
+            this.end = end;
+            this.lineNum = lineNum;
+        }
+    }
+
+    /**
+     * split: the pre-pass, finds the chunk boundaries.
+     * Walks the bytes once, counting lines like ByteBufferReader and tracking
+     * comments, and cuts after the first line feed outside of a comment past
+     * each target offset.
+     * @param bytes: the file.
+     * @param count: the desired number of chunks.
+     * @return the chunks in file order.
+     */
+    private List<Chunk> split(ByteBuffer bytes, int count){
+        int limit = bytes.limit();
+        count = Math.max(1, Math.min(count, limit / minChunk));
+        int target = limit / count;
+
+        List<Chunk> chunks = new ArrayList<>(count);
+        int start = 0, startLine = 1, lineNum = 1;
+        boolean inComment = false;
+        for(int pos = 0; pos < limit && chunks.size() < count - 1; pos++){
+            byte b = bytes.get(pos);
+            if(b == COMNT_START){ inComment = true; }
+            else if(b == COMNT_END){ inComment = false; }
+            /* "\r\n" is counted on its "\n" */
+            else if(b == CR){ if(pos + 1 == limit || bytes.get(pos + 1) != LF){ lineNum++; } }
+            else if(b == LF){
+                lineNum++;
+                if(!inComment && pos + 1 - start >= target && pos + 1 < limit){
+                    chunks.add(new Chunk(start, pos + 1, startLine));
+                    start = pos + 1;
+                    startLine = lineNum;
+                }
+            }
+        }
+        chunks.add(new Chunk(start, limit, startLine));
+        return chunks;
+    }
+
+    /**
+     * lex: lexes one chunk.
+     * Note: the chunk gets its own SymbolInterner, so threads never share one.
+     * @return the Tokens of the chunk, ending with ENDOFFILE.
+     */
+    private TokenBuffer lex(ByteBuffer bytes, Chunk chunk){
+        SymbolInterner local = (chunk.start == 0) ? this.symbols : new SymbolInterner();
+        ByteBufferReader reader = new ByteBufferReader(bytes, chunk.start, chunk.end, chunk.lineNum);
+        return new Tokenizer(new FileStream(reader, filePath, chunk.start), local).tokenizeAll();
+    }
+
+    /**
+     * concat: joins the chunk buffers in file order.
+     * Every chunk but the last one drops its ENDOFFILE, identifiers are moved
+     * to the compilation SymbolInterner and a leading '+' or '-' is resolved
+     * against the last Token of the chunks before it.
+     * @param parts: the chunk buffers.
+     * @return the TokenBuffer of the file.
+     */
+    private TokenBuffer concat(List<Future<TokenBuffer>> parts) throws IOException {
+        TokenBuffer tokens = new TokenBuffer();
+        TokenType prevType = null;
+        for(int k = 0; k < parts.size(); k++){
+            TokenBuffer part = await(parts.get(k));
+            int end = (k == parts.size() - 1) ? part.size() : part.size() - 1;
+            int from = 0;
+
+            if(end > 0 && k > 0){
+                TokenType first = part.getType(0);
+                if(first == TokenType.UNARYPLUS || first == TokenType.UNARYMINUS){
+                    char op = (first == TokenType.UNARYPLUS) ? '+' : '-';
+                    tokens.add(operators.resolveAddop(op, prevType), part.getPosition(0), part.getOffset(0), part.getLength(0));
+                    from = 1;
+                }
+            }
+            tokens.addRange(part, from, end, this::intern);
+            if(end > 0){ prevType = part.getType(end - 1); }
+        }
+        return tokens;
+    }
+
+    /**
+     * intern: moves an identifier TokenKind to the compilation SymbolInterner.
+     */
+    private TokenKind intern(TokenKind kind){
+        return (kind.getSymbol() >= 0) ? symbols.identifier(kind.getValue()) : kind;
+    }
+
+    /**
+     * await: the result of a chunk, rethrowing its error.
+     */
+    private static TokenBuffer await(Future<TokenBuffer> part) throws IOException {
+        try{ return part.get(); }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while lexing", e);
+        }
+        catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof Error){ throw (Error) cause; }
+            if(cause instanceof RuntimeException){ throw (RuntimeException) cause; }
+            throw new IOException(cause);
+        }
+    }
+
+} /* end of ParallelLexer class */
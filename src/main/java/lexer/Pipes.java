@@ -0,0 +1,49 @@
+/*
+ * File: Pipes.java
+ *
+ * Desc: contains the Pipes class, the waiting and failure
+ *       handling shared by the pipeline rings.
+ *
+ */
+package main.java.lexer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipes class
+ *
+ * The two sides of a pipeline ring (TokenPipe, and ActionPipe in the parser)
+ * never block on a lock: a side waiting on the other calls idle in a loop,
+ * and what the thread on the far side threw is handed over with rethrow.
+ */
+public final class Pipes {
+
+    /* a side waiting on the other spins, then yields, then sleeps this long */
+    private static final int SPINS = 64;
+    private static final int YIELDS = 64;
+    private static final long PARK_NANOS = 50_000;
+
+    private Pipes(){ }
+
+    /**
+     * idle: waits a little, longer the more often it is called in a row.
+     * @param count: the number of times the caller has waited so far.
+     */
+    public static void idle(int count){
+        if(count < SPINS){ return; }
+        if(count < SPINS + YIELDS){ Thread.yield(); }
+        else{ LockSupport.parkNanos(PARK_NANOS); }
+    }
+
+    /**
+     * rethrow: what a pipeline thread threw, as thrown to the other side.
+     * @param failed: what the thread threw.
+     * @return the RuntimeException to throw (an Error is thrown as it is).
+     */
+    public static RuntimeException rethrow(Throwable failed){
+        if(failed instanceof Error){ throw (Error) failed; }
+        if(failed instanceof RuntimeException){ return (RuntimeException) failed; }
+        return new IllegalStateException(failed);
+    }
+
+} /* end of Pipes class */
@@ -6,9 +6,8 @@
  */
 package main.java.lexer;
 
-import main.java.token.Token;
+import main.java.token.TokenKind;
 import main.java.token.TokenType;
-import java.util.HashMap;
 
 /**
  * PunctuationMap class.
@@ -16,45 +15,37 @@ import java.util.HashMap;
  */
 public class PunctuationMap {
 
-    private HashMap<Character, Token> punctuation;
+    /* punctuation TokenKinds indexed by character */
+    private final TokenKind[] punctuation;
     /**
      * PunctuationMap constructor
      */
     PunctuationMap(){
-        this.punctuation = new HashMap<>();
+        this.punctuation = new TokenKind[CharClass.SIZE];
 
-        /* populate the hashmap */
-        punctuation.put(',', new Token(TokenType.COMMA, null));
-        punctuation.put(';', new Token(TokenType.SEMICOLON, null));
-        punctuation.put(':', new Token(TokenType.COLON, null));
-        punctuation.put(')', new Token(TokenType.RIGHTPAREN, null));
-        punctuation.put('(', new Token(TokenType.LEFTPAREN, null));
-        punctuation.put(']', new Token(TokenType.RIGHTBRACKET, null));
-        punctuation.put('[', new Token(TokenType.LEFTBRACKET, null));
-        punctuation.put('.', new Token(TokenType.ENDMARKER, null));
+        /* populate the table */
+        punctuation[','] = new TokenKind(TokenType.COMMA, null);
+        punctuation[';'] = new TokenKind(TokenType.SEMICOLON, null);
+        punctuation[':'] = new TokenKind(TokenType.COLON, null);
+        punctuation[')'] = new TokenKind(TokenType.RIGHTPAREN, null);
+        punctuation['('] = new TokenKind(TokenType.LEFTPAREN, null);
+        punctuation[']'] = new TokenKind(TokenType.RIGHTBRACKET, null);
+        punctuation['['] = new TokenKind(TokenType.LEFTBRACKET, null);
+        punctuation['.'] = new TokenKind(TokenType.ENDMARKER, null);
     }
 
     /**
      * getPunc
      * @param punc: a punctuation character
-     * @return the associated Token
+     * @return the associated TokenKind
      */
-    public Token getPunc(char punc, int lineNum){
-        Token puncToken = this.punctuation.get(punc);
-        puncToken.setLineNum(lineNum);
-        return puncToken;
+    public TokenKind getPunc(char punc){
+        return this.punctuation[punc];
     }
     
     /**
      * isPunctuation: determines if the character is a punctuation char.
      * @return True if the char is punctuation, False otherwise.
      */
-    protected boolean isPunctuation(char chr) {
-        return (chr == ',' ||
-                chr == ';' ||
-                chr == ')' ||
-                chr == '(' ||
-                chr == ']' ||
-                chr == '[');
-    }
+    protected boolean isPunctuation(char chr) { return CharClass.isPunctuation(chr); }
 }
\ No newline at end of file
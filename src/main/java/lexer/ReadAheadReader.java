@@ -0,0 +1,258 @@
+/*
+ * File: ReadAheadReader.java
+ *
+ * Desc: contains the read-ahead (double-buffered) SourceReader.
+ *
+ */
+package main.java.lexer;
+
+import main.java.errors.CompilerError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * ReadAheadReader class
+ *
+ * A background thread reads the source into large blocks while the lexer
+ * consumes the previous one. Two blocks circulate between the threads
+ * (double buffering): the reader thread takes an empty block from the free
+ * queue, fills it and puts it on the full queue; the lexer takes full blocks
+ * and hands them back once consumed. Both queues are bounded, so the reader
+ * thread never runs more than one block ahead.
+ *
+ * Bytes are walked like ByteBufferReader does (one character per byte,
+ * "\n", "\r" or "\r\n" line breaks, offsets count bytes).
+ */
+class ReadAheadReader implements SourceReader {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BLOCKS = 2;
+    /* how long close waits for the reader thread (a daemon, left behind after that) */
+    private static final long JOIN_MILLIS = 1000;
+    private static final int LF = '\n';
+    private static final int CR = '\r';
+    private static final int COMNT_START = '{';
+    private static final int COMNT_END = '}';
+
+    /**
+     * Block: a buffer and the number of bytes read into it (-1 at the end of the source).
+     */
+    private static final class Block {
+        final byte[] bytes = new byte[BLOCK_SIZE];
+        int length;
+    }
+
+    /*
+     * Threading structures:
+     * - in: the source stream (only read by the reader thread)
+     * - name: the name of the source (for messages)
+     * - free: empty blocks, handed back by the lexer
+     * - full: filled blocks, in source order
+     * - thread: the reader thread
+     * - closed: set once the reader is closed
+     */
+    private final InputStream in;
+    private final String name;
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCKS);
+    private final BlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCKS);
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /*
+     * Lexer side:
+     * - block: the block being consumed (null once the source is exhausted)
+     * - blockPos: the index of the next byte in block
+     * - blockStart: the source offset of the first byte of block
+     * - lineNum: the current line number being analyzed
+     * - hasLine: False once the last line has been consumed
+     */
+    private Block block;
+    private int blockPos;
+    private int blockStart;
+    private int lineNum;
+    private boolean hasLine;
+
+    /**
+     * ReadAheadReader constructor
+     * Starts the reader thread and waits for the first block.
+     * @param in: the source stream (closed with the reader).
+     * @param name: the name of the source (names the thread).
+     */
+    ReadAheadReader(InputStream in, String name) {
+        this.in = in;
+        this.name = name;
+        for (int k = 0; k < BLOCKS; k++) { this.free.add(new Block()); }
+        this.thread = new Thread(this::fill, "read-ahead " + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        this.lineNum = 1;
+        this.block = take();
+        this.hasLine = peek() >= 0;
+    }
+
+    /**
+     * fill: the reader thread, fills free blocks until the end of the source.
+     */
+    private void fill() {
+        try {
+            int length;
+            do {
+                Block next = this.free.take();
+                length = readFully(next.bytes);
+                next.length = length;
+                this.full.put(next);
+            } while (length > 0 && !this.closed);
+        } catch (InterruptedException ex) {
+            /* closed while waiting: nothing left to do */
+        }
+    }
+
+    /**
+     * readFully: reads until the buffer is full or the source ends.
+     * @return the number of bytes read, -1 at the end of the source.
+     */
+    private int readFully(byte[] bytes) {
+        int length = 0;
+        try {
+            while (length < bytes.length) {
+                int n = this.in.read(bytes, length, bytes.length - length);
+                if (n < 0) { break; }
+                length += n;
+            }
+        } catch (IOException ex) {
+            /* report it and end the source there, like LineReader does */
+            if (!this.closed) { System.out.println(ex.toString()); }
+        }
+        return (length == 0) ? -1 : length;
+    }
+
+    /**
+     * take: the next full block from the reader thread.
+     * @return the block, or null at the end of the source.
+     * @throws CompilerError if the lexer thread is interrupted while waiting (the
+     *         interrupt is kept): the rest of the source is not read, and a cut
+     *         short source must not pass for the end of it.
+     */
+    private Block take() {
+        try {
+            Block next = this.full.take();
+            return (next.length < 0) ? null : next;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompilerError("Interrupted while reading " + this.name + " after " + this.blockStart + " bytes.");
+        }
+    }
+
+    /**
+     * peek: the next byte without consuming it.
+     * @return the byte (0 - 255), or -1 at the end of the source.
+     */
+    private int peek() {
+        while (this.block != null && this.blockPos >= this.block.length) {
+            /* hand the consumed block back and move on to the next one */
+            this.blockStart += this.block.length;
+            this.free.add(this.block);
+            this.block = take();
+            this.blockPos = 0;
+        }
+        return (this.block == null) ? -1 : (this.block.bytes[this.blockPos] & 0xFF);
+    }
+
+    /**
+     * read: method for obtaining the next character in the source.
+     * @return the next char in the source
+     */
+    public char read() {
+        /* the last line has already been consumed */
+        if (!this.hasLine) { return EOF; }
+
+        int b = peek();
+        /* last line without a terminator */
+        if (b < 0) {
+            this.lineNum++;
+            this.hasLine = false;
+            return SPACE;
+        }
+        this.blockPos++;
+        if (b == LF || b == CR) {
+            /* treat "\r\n" as a single break */
+            if (b == CR && peek() == LF) { this.blockPos++; }
+            this.lineNum++;
+            this.hasLine = peek() >= 0;
+            return SPACE;
+        }
+        return (char) b;
+    }
+
+    /* the skip methods stop at the end of the block, read moves on to the next one */
+
+    public void skipBlanks() {
+        if (!this.hasLine || this.block == null) { return; }
+        byte[] bytes = this.block.bytes;
+        int p = this.blockPos;
+        while (p < this.block.length) {
+            byte b = bytes[p];
+            /* bytes outside of ASCII are never whitespace */
+            if (b < 0 || b == LF || b == CR || !CharClass.isWhitespace((char) b)) { break; }
+            p++;
+        }
+        this.blockPos = p;
+    }
+
+    public void skipCommentText() {
+        if (!this.hasLine || this.block == null) { return; }
+        byte[] bytes = this.block.bytes;
+        int p = this.blockPos;
+        while (p < this.block.length) {
+            byte b = bytes[p];
+            if (b == COMNT_START || b == COMNT_END || b == LF || b == CR) { break; }
+            p++;
+        }
+        this.blockPos = p;
+    }
+
+    public int getLineNum() { return this.lineNum; }
+
+    public int getOffset() { return this.blockStart + this.blockPos; }
+
+    /**
+     * getLine: the current line, as far as it lies in the current block.
+     * Note: allocates, only meant for diagnostics.
+     */
+    public String getLine() {
+        if (!this.hasLine || this.block == null) { return null; }
+        byte[] bytes = this.block.bytes;
+        int start = Math.min(this.blockPos, this.block.length);
+        while (start > 0 && bytes[start - 1] != LF && bytes[start - 1] != CR) { start--; }
+        int end = start;
+        while (end < this.block.length && bytes[end] != LF && bytes[end] != CR) { end++; }
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * close: closes the stream and stops the reader thread.
+     * Note: the stream is closed first, a read blocked in it is not interruptible.
+     *       If the thread is still blocked after JOIN_MILLIS it is left behind.
+     */
+    public void close() throws IOException {
+        this.hasLine = false;
+        this.block = null;
+        this.closed = true;
+        this.thread.interrupt();
+        try {
+            this.in.close();
+        } finally {
+            try {
+                this.thread.join(JOIN_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+} /* end of ReadAheadReader class */
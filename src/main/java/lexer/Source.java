@@ -0,0 +1,161 @@
+/*
+ * File: Source.java
+ *
+ * Desc: contains the Source class, where the
+ *       FileStream reads a program from.
+ *
+ */
+package main.java.lexer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Source class
+ *
+ * A program to compile: a file on disk or a program already in memory
+ * (a CharSequence, bytes or an InputStream). Every source is read through
+ * one of the FileStream backends:
+ * - files use the backend they are given.
+ * - CharSequences and bytes are walked directly (MAPPED).
+ * - InputStreams are read a line at a time (BUFFERED), or by a background
+ *   thread (READ_AHEAD, see readAhead).
+ */
+public final class Source {
+
+    /**
+     * Opener: creates the SourceReader of a Source.
+     */
+    private interface Opener {
+        SourceReader open() throws IOException;
+    }
+
+    /*
+     * - name: the path of the file, or a name for an in-memory source (used in messages)
+     * - backend: the FileStream backend the source is read with
+     * - opener: creates the SourceReader
+     */
+    private final String name;
+    private final FileStream.Backend backend;
+    private final Opener opener;
+
+    /**
+     * Source constructor
+     * Note: constructor is private, use the factories.
+     */
+    private Source(String name, FileStream.Backend backend, Opener opener){
+        this.name = name;
+        this.backend = backend;
+        this.opener = opener;
+    }
+
+    /**
+     * file: a source file on disk.
+     * @param filePath: the path to the file.
+     * @param backend: how the file should be read.
+     * @return the Source.
+     */
+    public static Source file(String filePath, FileStream.Backend backend){
+        File file = new File(filePath);
+        if(backend == FileStream.Backend.MAPPED){
+            return new Source(filePath, backend, () -> ByteBufferReader.map(file.getAbsoluteFile()));
+        }
+        if(backend == FileStream.Backend.READ_AHEAD){
+            return new Source(filePath, backend, () -> new ReadAheadReader(new FileInputStream(file.getAbsoluteFile()), filePath));
+        }
+        return new Source(filePath, backend, () -> new LineReader(new BufferedReader(new FileReader(file.getAbsolutePath()))));
+    }
+
+    /**
+     * of: a program held in a CharSequence.
+     * @param name: a name for the program.
+     * @param text: the program text.
+     * @return the Source.
+     */
+    public static Source of(String name, CharSequence text){
+        return new Source(name, FileStream.Backend.MAPPED, () -> new CharSequenceReader(text));
+    }
+
+    /**
+     * of: a program held in a byte array (one character per byte).
+     * @param name: a name for the program.
+     * @param bytes: the program bytes.
+     * @return the Source.
+     */
+    public static Source of(String name, byte[] bytes){
+        return of(name, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * of: a program held in a ByteBuffer (one character per byte).
+     * Note: the bytes between the position and the limit are read, the
+     *       buffer itself is left untouched.
+     * @param name: a name for the program.
+     * @param bytes: the program bytes.
+     * @return the Source.
+     */
+    public static Source of(String name, ByteBuffer bytes){
+        return new Source(name, FileStream.Backend.MAPPED, () -> new ByteBufferReader(bytes.slice()));
+    }
+
+    /**
+     * of: a program read from an InputStream (UTF-8). The stream is closed with the FileStream.
+     * @param name: a name for the program.
+     * @param in: the program stream.
+     * @return the Source.
+     */
+    public static Source of(String name, InputStream in){
+        return of(name, in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * of: a program read from an InputStream. The stream is closed with the FileStream.
+     * @param name: a name for the program.
+     * @param in: the program stream.
+     * @param charset: the encoding of the stream.
+     * @return the Source.
+     */
+    public static Source of(String name, InputStream in, Charset charset){
+        return new Source(name, FileStream.Backend.BUFFERED, () -> new LineReader(new BufferedReader(new InputStreamReader(in, charset))));
+    }
+
+    /**
+     * readAhead: a program read from an InputStream by a background thread, one character
+     *            per byte. Worth it when reading the stream is slow. The stream is closed
+     *            with the FileStream.
+     * @param name: a name for the program.
+     * @param in: the program stream.
+     * @return the Source.
+     */
+    public static Source readAhead(String name, InputStream in){
+        return new Source(name, FileStream.Backend.READ_AHEAD, () -> new ReadAheadReader(in, name));
+    }
+
+    /**
+     * getName: getter method for the name of the source.
+     * @return the file path, or the name given to an in-memory program.
+     */
+    public String getName(){ return this.name; }
+
+    /**
+     * getBackend: getter method for the backend the source is read with.
+     * @return the FileStream backend.
+     */
+    public FileStream.Backend getBackend(){ return this.backend; }
+
+    /**
+     * open: creates a reader positioned at the start of the source.
+     * @return the SourceReader.
+     * @throws IOException if the source cannot be opened.
+     */
+    SourceReader open() throws IOException { return this.opener.open(); }
+
+} /* end of Source class */
@@ -0,0 +1,74 @@
+/*
+ * File: SourceReader.java
+ *
+ * Desc: contains the interface implemented by the
+ *       FileStream backends.
+ *
+ */
+package main.java.lexer;
+
+import java.io.IOException;
+
+/**
+ * SourceReader interface
+ *
+ * A SourceReader hands the FileStream the characters of the source
+ * one line at a time. The end of every line is reported as a single
+ * SPACE and the end of the source as EOF.
+ *
+ * The skip methods are the bulk path for whitespace and comments: they
+ * search the backend's buffer directly and never move past a line break,
+ * so lines are still only counted by read.
+ */
+interface SourceReader {
+
+    /*
+     * Constants:
+     * - EOF: the character returned once the source is exhausted.
+     * - SPACE: the character returned at the end of each line.
+     */
+    char EOF = (char) -1;
+    char SPACE = ' ';
+
+    /**
+     * read: moves to the next character of the source.
+     * @return the next character, SPACE at the end of a line, or EOF.
+     */
+    char read();
+
+    /**
+     * skipBlanks: moves past the whitespace before the next line break.
+     * Note: leaves the first other character (or the line break) to read.
+     */
+    void skipBlanks();
+
+    /**
+     * skipCommentText: moves past the characters before the next '{', '}' or line break.
+     * Note: leaves the bracket (or the line break) to read.
+     */
+    void skipCommentText();
+
+    /**
+     * getLineNum: the line number of the character about to be read.
+     * @return the current line number.
+     */
+    int getLineNum();
+
+    /**
+     * getOffset: the offset of the character about to be read.
+     * @return the offset from the start of the source.
+     */
+    int getOffset();
+
+    /**
+     * getLine: the line currently being read.
+     * @return the current line, or null once EOF has been reached.
+     */
+    String getLine();
+
+    /**
+     * close: releases the underlying source.
+     * @throws IOException if the source cannot be closed.
+     */
+    void close() throws IOException;
+}
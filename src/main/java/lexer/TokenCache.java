@@ -0,0 +1,306 @@
+/*
+ * File: TokenCache.java
+ *
+ * Desc: contains the TokenCache class, an on-disk
+ *       cache of lexed files keyed by their content.
+ *
+ */
+package main.java.lexer;
+
+import main.java.errors.CompilerError;
+import main.java.token.SymbolInterner;
+import main.java.token.TokenBuffer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * TokenCache class
+ *
+ * Keeps the TokenBuffer of every file it lexes in a directory, one entry per
+ * distinct content: the entry is named after the SHA-256 of the source bytes
+ * and holds the encoded buffer (see TokenBuffer.encode). A file whose content
+ * has been lexed before is read back instead of lexed.
+ *
+ * The entries take at most maxBytes on disk: once over, the least recently
+ * used ones are deleted. The last use of an entry is its modification time,
+ * so the order carries over from one run (or process) to the next.
+ *
+ * Note: identifiers are interned in the given SymbolInterner on the way back,
+ *       in order of first use like the lexer does. Files with a lexical error
+ *       are not cached (the LexerError is thrown as usual).
+ */
+public final class TokenCache {
+
+    /*
+     * - SUFFIX: the file name extension of the entries
+     * - HEX: digits of the entry names
+     * - VERSION: part of every key, changed whenever the lexer output changes
+     */
+    private static final String SUFFIX = ".tok";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] VERSION = { 'T', 'O', 'K', 1 };
+    private static final Logger LOGGER = Logger.getLogger(TokenCache.class.getName());
+
+    /*
+     * - directory: where the entries are kept
+     * - maxBytes: the most the entries may take on disk
+     * - entries: the size of every entry by key, least recently used first
+     * - totalBytes: the size of all the entries
+     * - hits, misses, evictions: counters since the cache was opened
+     */
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries;
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * TokenCache constructor
+     * @param directory: where the entries are kept (created if missing).
+     * @param maxBytes: the most the entries may take on disk.
+     * @throws IOException if the directory cannot be created or listed.
+     */
+    public TokenCache(String directory, long maxBytes) throws IOException {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        Files.createDirectories(this.directory);
+        index();
+        evict();
+    }
+
+    /**
+     * tokenize: the Tokens of a file, read from the cache or lexed (and cached).
+     * @param filePath: the path to the file.
+     * @param symbols: the SymbolInterner of the compilation.
+     * @return the TokenBuffer, ending with ENDOFFILE.
+     * @throws IOException if the file cannot be read.
+     */
+    public TokenBuffer tokenize(String filePath, SymbolInterner symbols) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)){
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return tokenize(filePath, bytes, symbols);
+        }
+    }
+
+    /**
+     * tokenize: the Tokens of a program held in a ByteBuffer (one character per byte),
+     *           read from the cache or lexed (and cached).
+     * @param name: a name for the program (used in messages).
+     * @param bytes: the program bytes (between the position and the limit).
+     * @param symbols: the SymbolInterner of the compilation.
+     * @return the TokenBuffer, ending with ENDOFFILE.
+     */
+    public TokenBuffer tokenize(String name, ByteBuffer bytes, SymbolInterner symbols){
+        String key = key(bytes);
+        TokenBuffer tokens = load(key, symbols);
+        if(tokens != null){
+            hits.incrementAndGet();
+            return tokens;
+        }
+        misses.incrementAndGet();
+        tokens = new Tokenizer(Source.of(name, bytes), symbols).tokenizeAll();
+        store(key, tokens);
+        return tokens;
+    }
+
+    /**
+     * getHits: the number of programs read back from the cache.
+     */
+    public long getHits(){ return this.hits.get(); }
+
+    /**
+     * getMisses: the number of programs lexed (not in the cache).
+     */
+    public long getMisses(){ return this.misses.get(); }
+
+    /**
+     * getEvictions: the number of entries deleted to stay under maxBytes.
+     */
+    public long getEvictions(){ return this.evictions.get(); }
+
+    /**
+     * size: the number of entries in the cache.
+     */
+    public synchronized int size(){ return this.entries.size(); }
+
+    /**
+     * getBytes: the size of the entries on disk.
+     */
+    public synchronized long getBytes(){ return this.totalBytes; }
+
+    /**
+     * toString: the counters of the cache.
+     */
+    @Override
+    public String toString(){
+        return "TokenCache "+directory+": "+getHits()+" hits, "+getMisses()+" misses, "+getEvictions()+" evictions, "
+                +size()+" entries ("+getBytes()+" bytes)";
+    }
+
+    /**
+     * key: the name of the entry of a program.
+     * @param bytes: the program bytes (left untouched).
+     * @return the SHA-256 of the bytes, in hex.
+     */
+    private static String key(ByteBuffer bytes){
+        MessageDigest digest;
+        try{ digest = MessageDigest.getInstance("SHA-256"); }
+        catch(NoSuchAlgorithmException e){ throw new CompilerError("SHA-256 is not available: "+e.getMessage()); }
+        digest.update(VERSION);
+        digest.update(bytes.duplicate());
+
+        byte[] hash = digest.digest();
+        char[] name = new char[hash.length * 2];
+        for(int i = 0; i < hash.length; i++){
+            name[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            name[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(name);
+    }
+
+    /**
+     * load: reads an entry back.
+     * Note: an entry that cannot be read or decoded is deleted and counts as missing.
+     * @return the TokenBuffer, null if there is no (usable) entry for the key.
+     */
+    private TokenBuffer load(String key, SymbolInterner symbols){
+        /* looking the key up makes it the most recently used */
+        synchronized(this){
+            if(entries.get(key) == null){ return null; }
+        }
+        Path entry = directory.resolve(key + SUFFIX);
+        try(FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)){
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            while(bytes.hasRemaining() && channel.read(bytes) >= 0){ }
+            bytes.flip();
+            TokenBuffer tokens = TokenBuffer.decode(bytes, symbols);
+            /* the entry was just used */
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return tokens;
+        }
+        catch(IOException | RuntimeException e){
+            LOGGER.log(Level.WARNING, "Dropping token cache entry "+entry+": "+e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * store: writes an entry, then evicts the least recently used entries
+     *        while the cache is over maxBytes (see evict).
+     * Note: the entry is written to a temporary file and moved into place, so
+     *       other readers of the directory never see half an entry. A failure
+     *       to write only costs the entry.
+     */
+    private void store(String key, TokenBuffer tokens){
+        ByteBuffer bytes = tokens.encode();
+        long length = bytes.remaining();
+        Path temp = null;
+        try{
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)){
+                while(bytes.hasRemaining()){ channel.write(bytes); }
+            }
+            Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e){
+            LOGGER.log(Level.WARNING, "Could not write token cache entry "+key+": "+e);
+            try{ if(temp != null){ Files.deleteIfExists(temp); } }
+            catch(IOException ignored){ /* nothing more to do */ }
+            return;
+        }
+
+        synchronized(this){
+            Long old = entries.put(key, length);
+            totalBytes += length - ((old == null) ? 0 : old);
+        }
+        evict();
+    }
+
+    /**
+     * evict: deletes the least recently used entries while the cache is over maxBytes.
+     * Note: the most recently used entry is always kept.
+     */
+    private void evict(){
+        List<String> evicted = new ArrayList<>();
+        synchronized(this){
+            Iterator<Map.Entry<String, Long>> lru = entries.entrySet().iterator();
+            while(totalBytes > maxBytes && entries.size() > 1){
+                Map.Entry<String, Long> eldest = lru.next();
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                lru.remove();
+            }
+        }
+        for(String key : evicted){
+            evictions.incrementAndGet();
+            delete(key);
+        }
+    }
+
+    /**
+     * remove: drops an entry from the index and the disk.
+     */
+    private void remove(String key){
+        synchronized(this){
+            Long length = entries.remove(key);
+            if(length != null){ totalBytes -= length; }
+        }
+        delete(key);
+    }
+
+    /**
+     * delete: deletes the file of an entry (another process may have deleted it already).
+     */
+    private void delete(String key){
+        try{ Files.deleteIfExists(directory.resolve(key + SUFFIX)); }
+        catch(IOException e){ LOGGER.log(Level.WARNING, "Could not delete token cache entry "+key+": "+e); }
+    }
+
+    /**
+     * index: lists the entries already in the directory, least recently used first.
+     */
+    private void index() throws IOException {
+        List<Path> found = new ArrayList<>();
+        Map<Path, FileTime> used = new HashMap<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)){
+            for(Path entry : stream){
+                found.add(entry);
+                used.put(entry, Files.getLastModifiedTime(entry));
+            }
+        }
+        found.sort(Comparator.comparing(used::get));
+
+        for(Path entry : found){
+            String name = entry.getFileName().toString();
+            long length = Files.size(entry);
+            entries.put(name.substring(0, name.length() - SUFFIX.length()), length);
+            totalBytes += length;
+        }
+    }
+
+} /* end of TokenCache class */
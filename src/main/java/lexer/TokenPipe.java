@@ -0,0 +1,131 @@
+/*
+ * File: TokenPipe.java
+ *
+ * Desc: contains the TokenPipe class, a lexer
+ *       thread running ahead of the parser.
+ *
+ */
+package main.java.lexer;
+
+import main.java.token.Position;
+import main.java.token.Token;
+import main.java.token.TokenKind;
+import main.java.token.TokenType;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenPipe class
+ *
+ * A thread lexes the rest of a file into a bounded ring while the parser
+ * takes Tokens out of it. Each slot holds a packed Token (its TokenKind and
+ * Position), the Token object is only created when it is taken. There is one
+ * producer (the lexer thread) and one consumer (the parser), so the ring needs
+ * no lock: each side owns one counter and only reads the other's, and a slot
+ * is published by the ordered write of the producer's counter.
+ *
+ * The Tokens come out in the order (and with the values) getNextToken would
+ * return them. A LexerError is thrown by next where getNextToken would have
+ * thrown it, after every Token before it.
+ */
+public final class TokenPipe {
+
+    /* number of slots (a power of two) */
+    private static final int CAPACITY = 1024;
+
+    /*
+     * The ring:
+     * - kinds, positions: the packed Tokens
+     * - tail: the number of Tokens published (written by the lexer thread)
+     * - head: the number of Tokens taken (written by the parser)
+     * - failure: what the lexer thread threw, after publishing every Token before it
+     * - closed: set once the parser stops taking Tokens
+     */
+    private final TokenKind[] kinds = new TokenKind[CAPACITY];
+    private final long[] positions = new long[CAPACITY];
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    /*
+     * Lexer thread:
+     * - tokenizer: owned by the lexer thread once the pipe is started
+     * - freeHead: head as last read (the slots before freeHead + CAPACITY are free)
+     */
+    private final Tokenizer tokenizer;
+    private long freeHead;
+
+    /*
+     * Parser side:
+     * - next: the number of the next Token to take
+     * - readyTail: tail as last read (the Tokens before it can be taken)
+     * - current: the last Token taken
+     */
+    private long next;
+    private long readyTail;
+    private Token current;
+
+    /**
+     * TokenPipe constructor
+     * Starts the lexer thread. From then on the Tokenizer belongs to it.
+     * @param tokenizer: the Tokenizer, positioned after the Tokens already taken.
+     */
+    public TokenPipe(Tokenizer tokenizer){
+        this.tokenizer = tokenizer;
+        Thread thread = new Thread(this::fill, "lexer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * fill: the lexer thread, publishes Tokens until ENDOFFILE.
+     */
+    private void fill(){
+        try{
+            long count = 0;
+            TokenKind kind;
+            while((kind = tokenizer.nextKind()) != null){
+                /* wait for a free slot */
+                for(int idle = 0; count - freeHead == CAPACITY; idle++){
+                    if(closed){ return; }
+                    freeHead = head.get();
+                    if(count - freeHead == CAPACITY){ Pipes.idle(idle); }
+                }
+                int slot = (int) count & (CAPACITY - 1);
+                kinds[slot] = kind;
+                positions[slot] = Position.of(tokenizer.getLineNum(), tokenizer.getColumn());
+                tail.lazySet(++count);
+                if(kind.getTokenType() == TokenType.ENDOFFILE || closed){ return; }
+            }
+        }
+        catch(Throwable e){ failure = e; }
+    }
+
+    /**
+     * next: takes the next Token out of the pipe (waiting for the lexer thread).
+     * Note: like the Tokenizer, it keeps returning EOF at the end.
+     * @return the next Token of the file.
+     * @throws LexerError if the lexer thread failed on this Token.
+     */
+    public Token next(){
+        if(current != null && current.isEOF()){ return current; }
+        for(int idle = 0; next == readyTail; idle++){
+            Throwable failed = failure;
+            readyTail = tail.get();
+            if(next != readyTail){ break; }
+            if(failed != null){ throw Pipes.rethrow(failed); }
+            Pipes.idle(idle);
+        }
+        int slot = (int) next & (CAPACITY - 1);
+        current = kinds[slot].at(positions[slot]);
+        kinds[slot] = null;
+        head.lazySet(++next);
+        return current;
+    }
+
+    /**
+     * close: stops the lexer thread (the Tokens not taken are dropped).
+     */
+    public void close(){ closed = true; }
+
+} /* end of TokenPipe class */
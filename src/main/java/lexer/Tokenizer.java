@@ -6,9 +6,23 @@
  */
 package main.java.lexer;
 
+import main.java.lexer.errors.Diagnostics;
 import main.java.lexer.errors.LexerError;
+import main.java.token.Position;
+import main.java.token.SymbolInterner;
 import main.java.token.Token;
+import main.java.token.TokenBuffer;
+import main.java.token.TokenKind;
 import main.java.token.TokenType;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Tokenizer class
@@ -23,12 +37,87 @@ public class Tokenizer {
      * - EXP: scientific notation symbol.
      * - EOF: end of file character.
      * - ID_MAX: the max length of an identifier.
+     * - INT_MAX: the largest integer constant (the semantic phase works on ints).
+     *   Real constants must fit in a double (see realConstant).
      *
      */
     private static final char SPACE = ' ';
     private static final char EXP = 'e';
     private static final char EOF = (char) -1;
     private static final int ID_MAX = 20;
+    private static final long INT_MAX = Integer.MAX_VALUE;
+
+    /*
+     * Scanner character classes (columns of the TRANSITIONS table):
+     * - C_DIGIT: 0-9
+     * - C_EXP: the exponent symbol, e or E.
+     * - C_LETTER: any other letter.
+     * - C_DOT: decimal point.
+     * - C_SIGN: + or -
+     * - C_OTHER: anything else (whitespace, EOF, punctuation, ...)
+     */
+    private static final byte C_DIGIT = 0;
+    private static final byte C_EXP = 1;
+    private static final byte C_LETTER = 2;
+    private static final byte C_DOT = 3;
+    private static final byte C_SIGN = 4;
+    private static final byte C_OTHER = 5;
+
+    /*
+     * Scanner states (rows of the TRANSITIONS table):
+     * - S_INT: integer digits.
+     * - S_DOT: integer followed by a dot.
+     * - S_FRAC: decimal digits.
+     * - S_EXP: after the exponent symbol.
+     * - S_EXP_SIGN: after the sign of the exponent.
+     * - S_EXP_DIGITS: exponent digits (unsigned).
+     * - S_SIGNED_EXP_DIGITS: exponent digits (signed).
+     * - S_IDENT: identifier body.
+     */
+    private static final int S_INT = 0;
+    private static final int S_DOT = 1;
+    private static final int S_FRAC = 2;
+    private static final int S_EXP = 3;
+    private static final int S_EXP_SIGN = 4;
+    private static final int S_EXP_DIGITS = 5;
+    private static final int S_SIGNED_EXP_DIGITS = 6;
+    private static final int S_IDENT = 7;
+
+    /*
+     * Scanner actions (negative entries in the TRANSITIONS table end the scan):
+     * - A_*: accept the lexeme and push back the current character.
+     * - E_*: the lexeme is ill-formed, raise a LexerError.
+     */
+    private static final int A_INT = -1;
+    private static final int A_INT_DOT = -2;
+    private static final int A_REAL = -3;
+    private static final int A_IDENT = -4;
+    private static final int E_AFTER_INT = -5;
+    private static final int E_AFTER_DOT = -6;
+    private static final int E_AFTER_FRAC = -7;
+    private static final int E_EXP = -8;
+    private static final int E_EXP_SIGN = -9;
+    private static final int E_AFTER_EXP = -10;
+    private static final int E_AFTER_SIGNED_EXP = -11;
+
+    /* SCAN_CLASS[chr] = scanner character class of an ASCII character */
+    private static final byte[] SCAN_CLASS = new byte[CharClass.SIZE];
+    static {
+        for (char chr = 0; chr < CharClass.SIZE; chr++) { SCAN_CLASS[chr] = classify(chr); }
+    }
+
+    /* TRANSITIONS[state][character class] = next state or action */
+    private static final int[][] TRANSITIONS = {
+            /*                        C_DIGIT              C_EXP               C_LETTER            C_DOT         C_SIGN        C_OTHER */
+            /* S_INT */               { S_INT,               S_EXP,              E_AFTER_INT,        S_DOT,        A_INT,        A_INT },
+            /* S_DOT */               { S_FRAC,              E_AFTER_DOT,        E_AFTER_DOT,        A_INT_DOT,    A_INT_DOT,    A_INT_DOT },
+            /* S_FRAC */              { S_FRAC,              S_EXP,              E_AFTER_FRAC,       A_REAL,       A_REAL,       A_REAL },
+            /* S_EXP */               { S_EXP_DIGITS,        E_EXP,              E_EXP,              E_EXP,        S_EXP_SIGN,   E_EXP },
+            /* S_EXP_SIGN */          { S_SIGNED_EXP_DIGITS, E_EXP_SIGN,         E_EXP_SIGN,         E_EXP_SIGN,   E_EXP_SIGN,   E_EXP_SIGN },
+            /* S_EXP_DIGITS */        { S_EXP_DIGITS,        E_AFTER_EXP,        E_AFTER_EXP,        A_REAL,       A_REAL,       A_REAL },
+            /* S_SIGNED_EXP_DIGITS */ { S_SIGNED_EXP_DIGITS, E_AFTER_SIGNED_EXP, E_AFTER_SIGNED_EXP, A_REAL,       A_REAL,       A_REAL },
+            /* S_IDENT */             { S_IDENT,             S_IDENT,            S_IDENT,            A_IDENT,      A_IDENT,      A_IDENT }
+    };
 
     /*
      * Structures:
@@ -38,6 +127,9 @@ public class Tokenizer {
      * - keywords: a keyword map.
      * - punctuation: a punctuation mapping.
      * - operators: an operator mapping.
+     * - symbols: interns identifiers (shared with the symbol tables).
+     * - buffer: reusable scan buffer for identifiers and constants.
+     * - length: the number of characters in the scan buffer.
      *
      */
     private FileStream fStream;
@@ -46,6 +138,33 @@ public class Tokenizer {
     private KeywordMap keywords;
     private PunctuationMap punctuation;
     private OperatorMap operators;
+    private SymbolInterner symbols;
+    private char[] buffer = new char[64];
+    private int length;
+
+    /*
+     * The last lexeme (set by lex):
+     * - tokKind: the shared kind of a keyword, operator or punctuation (null otherwise).
+     * - tokType: the TokenType of the lexeme.
+     * - tokValue: the value of an identifier or constant (null otherwise).
+     * - tokInt: the decoded value of an integer constant.
+     * - tokReal: the decoded value of a real constant.
+     * - tokLine: the line number of the first character of the lexeme.
+     * - tokColumn: the column of the first character of the lexeme (1 based).
+     * - tokOffset: the offset of the first character of the lexeme.
+     * - tokLength: the number of characters in the lexeme.
+     * - spans: whether tokLine and tokColumn are recorded (see recordSpans).
+     */
+    private TokenKind tokKind;
+    private TokenType tokType;
+    private String tokValue;
+    private long tokInt;
+    private double tokReal;
+    private int tokLine;
+    private int tokColumn;
+    private int tokOffset;
+    private int tokLength;
+    private boolean spans = true;
 
     /**
      * Tokenizer constructor
@@ -53,17 +172,101 @@ public class Tokenizer {
      * @param filename, a file path for initializing the FileStream.
      */
     public Tokenizer(String filename) {
+        this(filename, FileStream.DEFAULT_BACKEND);
+    }
+
+    /**
+     * Tokenizer constructor
+     *
+     * @param filename, a file path for initializing the FileStream.
+     * @param backend, how the FileStream should read the file.
+     */
+    public Tokenizer(String filename, FileStream.Backend backend) {
+        this(filename, backend, new SymbolInterner());
+    }
+
+    /**
+     * Tokenizer constructor
+     *
+     * @param filename, a file path for initializing the FileStream.
+     * @param backend, how the FileStream should read the file.
+     * @param symbols, the SymbolInterner of the compilation.
+     */
+    public Tokenizer(String filename, FileStream.Backend backend, SymbolInterner symbols) {
+        this(Source.file(filename, backend), symbols);
+    }
+
+    /**
+     * Tokenizer constructor
+     *
+     * @param source, the program to tokenize (a file or a program in memory).
+     */
+    public Tokenizer(Source source) {
+        this(source, new SymbolInterner());
+    }
+
+    /**
+     * Tokenizer constructor
+     *
+     * @param source, the program to tokenize (a file or a program in memory).
+     * @param symbols, the SymbolInterner of the compilation.
+     */
+    public Tokenizer(Source source, SymbolInterner symbols) {
+        this(new FileStream(source), symbols);
+    }
+
+    /**
+     * Tokenizer constructor
+     * Note: lexical errors are recorded instead of thrown, the offending
+     *       characters are skipped and lexing carries on.
+     *
+     * @param source, the program to tokenize (a file or a program in memory).
+     * @param symbols, the SymbolInterner of the compilation.
+     * @param diagnostics, where lexical errors are recorded.
+     */
+    public Tokenizer(Source source, SymbolInterner symbols, Diagnostics diagnostics) {
+        this(new FileStream(source, diagnostics), symbols);
+    }
+
+    /**
+     * Tokenizer constructor
+     *
+     * @param fStream, an open FileStream.
+     * @param symbols, the SymbolInterner of the compilation.
+     */
+    Tokenizer(FileStream fStream, SymbolInterner symbols) {
+        this.symbols = symbols;
         this.keywords = new KeywordMap();
         this.punctuation = new PunctuationMap();
         this.operators = new OperatorMap();
-        this.fStream = new FileStream(filename);
+        this.fStream = fStream;
     }
 
-    // todo: this this right?
-    public int getLineNum(){
-        if(this.prevToken != null){ return this.prevToken.getLineNum(); }
-        return 0;
-    }
+    /**
+     * getSymbols: getter method for the SymbolInterner.
+     * @return the SymbolInterner identifiers are interned in.
+     */
+    public SymbolInterner getSymbols() { return this.symbols; }
+
+    /**
+     * getDiagnostics: getter method for the diagnostics buffer.
+     * @return the Diagnostics lexical errors are recorded in, null if they are thrown.
+     */
+    public Diagnostics getDiagnostics() { return this.fStream.getDiagnostics(); }
+
+    /**
+     * getLineNum: the line number of the last Token lexed.
+     * Note: the line its first character is on, even when the look ahead of
+     *       the lexer has already moved on to the following lines.
+     * @return the line number, 0 if no Token has been lexed yet.
+     */
+    public int getLineNum(){ return this.tokLine; }
+
+    /**
+     * getColumn: the column of the last Token lexed.
+     * @return the column (1 based), 0 if no Token has been lexed yet.
+     */
+    public int getColumn(){ return this.tokColumn; }
 
     /**
      * getPrevToken: getter method for the previous Token.
@@ -75,7 +278,7 @@ public class Tokenizer {
      * prevTokenT: returns the previous Token Type created.
      * @return the previous Token Type
      */
-    public TokenType prevTokenT() { return this.prevToken.getTokenType(); }
+    public TokenType prevTokenT() { return this.tokType; }
 
     /**
      * isNumber: checks if the character is a number.
@@ -83,7 +286,7 @@ public class Tokenizer {
      * @param chr, the character being checked.
      * @return True, if it's a number and False otherwise.
      */
-    private boolean isNumber(char chr) { return (chr >= '0' && chr <= '9'); }
+    private boolean isNumber(char chr) { return CharClass.isDigit(chr); }
 
     /**
      * isLetter: checks if the character is letter.
@@ -91,7 +294,7 @@ public class Tokenizer {
      * @param chr, the character being checked.
      * @return True if it's a letter, and False otherwise.
      */
-    private boolean isLetter(char chr) { return ((chr >= 'a' && chr <= 'z' || chr >= 'A' && chr <= 'Z')); }
+    private boolean isLetter(char chr) { return CharClass.isLetter(chr); }
 
     /**
      * isSpecialChar: checks if the character is a special character.
@@ -115,15 +318,7 @@ public class Tokenizer {
      * @param chr, the character being checked.
      * @return True, if valid, False otherwise.
      */
-    private boolean validIdentBody(char chr) { return (isLetter(chr) || isNumber(chr)); }
-
-    /**
-     * isPlusOrMinus: checks if the character is either a plus or minus.
-     *                The purpose of this method is for readability.
-     * @param chr, the character being checked
-     * @return True, if a plus or minus, False otherwise
-     */
-    private boolean isPlusOrMinus(char chr){ return (chr == '+' || chr == '-'); }
+    private boolean validIdentBody(char chr) { return CharClass.isLetterOrDigit(chr); }
 
     /**
      * illegalAfterNum: checks if the current character is illegal after a number begining
@@ -134,227 +329,490 @@ public class Tokenizer {
     /**
      * eofToken: routine if EOF has been reached. The routine closes the
      *           fStream upon initially reaching EOF.
-     * @return an EOF Token.
+     * @return False if EOF had already been reached, True otherwise.
      */
-    private Token eofToken() {
-        /* if bReader has already been closed, we've already set prevToken to EOF */
-        if (this.fStream.getBReader() == null) { return this.prevToken; }
+    private boolean eofToken() {
+        /* if the file has already been closed, we've already returned EOF */
+        if (!this.fStream.isOpen()) { return false; }
         /* otherwise, close the file */
         fStream.closeFile();
-        return this.prevToken = new Token(TokenType.ENDOFFILE, null, fStream.getLineNum());
+        setLexeme(TokenType.ENDOFFILE, null);
+        return true;
     }
 
     /**
      * Tokenizer is centered around this method.
      * getNextToken: retrieves the next Token in the file.
-     * Note: contains small recursion.
      * @return the next Token in the file.
      */
     public Token getNextToken() {
-        currentChar = fStream.nextChar();
-        /* if SPACE, we get the next char and continue */
-        if ((currentChar == SPACE || currentChar == '\n')) { return getNextToken(); } /* should only need do recursion once */
         /* if we've reached EOF just keep returning EOF */
-        if (currentChar == EOF) { return eofToken(); }
-        /* check if character is some kind of punctuation */
-        if (punctuation.isPunctuation(currentChar)) {
-            return this.prevToken = punctuation.getPunc(currentChar, fStream.getLineNum());
-        }
-        /* check it its an operator (both simple and complex) */
-        if (operators.isSimpleOp(currentChar)) {
-            return this.prevToken = operators.getSimpleOP(currentChar, fStream.getLineNum());
-        }
-        if (operators.isSpecialOP(currentChar)) {
-            /* pass control to the operator map */
-            return this.prevToken = operators.resolveSpecialOp(currentChar, prevToken, fStream, punctuation);
-        }
-        /* maybe it's a number. */
-        if (isNumber(currentChar)) {
-            return this.prevToken = getNumber(""+currentChar, fStream.getLineNum());
-        }
-        /* if not, try seeing if it's an identifier */
-        if (validIdentStart(currentChar)) {
-            return this.prevToken = getIdentifier(""+currentChar, fStream.getLineNum());
-        }
-        /* otherwise, it must have been something the language does not accept */
-        throw LexerError.InvalidCharacter(fStream.getLineNum(), currentChar);
+        if (!lex()) { return this.prevToken; }
+        return token();
+    }
+
+    /**
+     * stream: the rest of the Tokens of the file as a sequential Stream, ending with ENDOFFILE.
+     * Note: the stream is lazy, each Token is lexed when the stream asks for it (a
+     *       LexerError is thrown from there). It is empty once ENDOFFILE has been
+     *       returned, by getNextToken or by an earlier stream.
+     * @return the Stream of Tokens.
+     */
+    public Stream<Token> stream() { return StreamSupport.stream(spliterator(), false); }
+
+    /**
+     * spliterator: the rest of the Tokens of the file, lexed one at a time (see stream).
+     * Note: it does not split, lexing is sequential. Use a TokenBuffer to split.
+     * @return the Spliterator of Tokens.
+     */
+    public Spliterator<Token> spliterator() { return new TokenSpliterator(); }
+
+    /**
+     * iterator: the rest of the Tokens of the file, lexed one at a time (see stream).
+     * @return the Iterator of Tokens.
+     */
+    public Iterator<Token> iterator() { return Spliterators.iterator(spliterator()); }
+
+    /**
+     * types: the TokenTypes of the rest of the file (see stream), as ordinals
+     *        (TokenType.values()[ordinal]). No Token objects are created, so
+     *        getPrevToken is left as it was (prevTokenT follows the stream).
+     * @return the IntStream of TokenType ordinals.
+     */
+    public IntStream types() { return StreamSupport.intStream(new TypeSpliterator(), false); }
+
+    /**
+     * token: creates the Token of the last lexeme (it becomes the previous Token).
+     * @return the Token.
+     */
+    private Token token() {
+        return this.prevToken = kind().at(Position.of(this.tokLine, this.tokColumn));
+    }
+
+    /**
+     * kind: the TokenKind of the last lexeme (shared, or created for an identifier or constant).
+     */
+    private TokenKind kind() {
+        if (this.tokKind != null) { return this.tokKind; }
+        if (this.tokType == TokenType.INTCONSTANT) { return TokenKind.intConstant(this.tokValue, this.tokInt); }
+        if (this.tokType == TokenType.REALCONSTANT) { return TokenKind.realConstant(this.tokValue, this.tokReal); }
+        return new TokenKind(this.tokType, this.tokValue);
     }
 
     /**
-     * getNumber: returns the constant at this point in the file.
-     * Note: RECURSIVE
-     * @param buffer: the number as a string.
-     * @param lineNum: the line number where the number began in the file.
-     * @return a real or integer constant Token.
+     * nextKind: lexes the next Token without creating a Token object (see TokenPipe).
+     *           Its Position is given by getLineNum and getColumn, getPrevToken is
+     *           left as it was.
+     * @return the TokenKind of the next Token, or null if EOF had already been returned.
      */
-    private Token getNumber(String buffer, int lineNum){
-        currentChar = fStream.nextChar();
+    TokenKind nextKind() { return lex() ? kind() : null; }
 
-        /* If the current character is a number */
-        if(isNumber(currentChar)){
-            buffer += currentChar;
-            return getNumber(buffer, lineNum);
+    /**
+     * recordSpans: turns the recording of the line and column of each Token on or off.
+     * Note: only for measuring what recording them costs (see LexBenchmark), with
+     *       it off every Token is placed at line 0, column 0.
+     * @param on: True to record them (the default).
+     */
+    void recordSpans(boolean on) {
+        this.spans = on;
+        fStream.recordSpans(on);
+    }
+
+    /**
+     * tokenizeAll: lexes the rest of the file into a TokenBuffer without
+     *              creating a Token object per Token. The last Token in
+     *              the buffer is ENDOFFILE.
+     * @return the TokenBuffer.
+     */
+    public TokenBuffer tokenizeAll() {
+        TokenBuffer tokens = new TokenBuffer();
+        /* EOF may have been returned already */
+        if (this.tokType == TokenType.ENDOFFILE) { lex(); }
+        else {
+            while (lex() && this.tokType != TokenType.ENDOFFILE) { addTo(tokens); }
         }
+        addTo(tokens);
+        return tokens;
+    }
 
-        /* if dot is encountered */
-        if(currentChar == '.'){
-            currentChar = fStream.nextChar();
-            /* check if a number follows the dot */
-            if(isNumber(currentChar)) {
-                buffer += ".";
-                return getReal(buffer, lineNum);
+    /**
+     * resumeAfter: sets the type of the Token before the first one this Tokenizer lexes,
+     *              when it starts in the middle of a file (decides unary '+' and '-').
+     * @param prevType: the TokenType of the previous Token (null at the start of the file).
+     */
+    void resumeAfter(TokenType prevType) { this.tokType = prevType; }
+
+    /**
+     * lexInto: lexes the next Token into a TokenBuffer.
+     * @param tokens: the TokenBuffer.
+     * @return False once ENDOFFILE has been added, True otherwise.
+     */
+    boolean lexInto(TokenBuffer tokens) {
+        if (!lex()) { return false; }
+        addTo(tokens);
+        return this.tokType != TokenType.ENDOFFILE;
+    }
+
+    /**
+     * addTo: appends the last lexeme to a TokenBuffer.
+     * @param tokens: the TokenBuffer.
+     */
+    private void addTo(TokenBuffer tokens) {
+        long position = Position.of(this.tokLine, this.tokColumn);
+        if (this.tokKind != null) { tokens.add(this.tokKind, position, this.tokOffset, this.tokLength); }
+        else if (this.tokType == TokenType.INTCONSTANT) { tokens.addInt(this.tokValue, this.tokInt, position, this.tokOffset, this.tokLength); }
+        else if (this.tokType == TokenType.REALCONSTANT) { tokens.addReal(this.tokValue, this.tokReal, position, this.tokOffset, this.tokLength); }
+        else { tokens.add(this.tokType, this.tokValue, position, this.tokOffset, this.tokLength); }
+    }
+
+    /**
+     * lex: reads the next lexeme in the file into the tok* fields.
+     * Note: with diagnostics, ill-formed lexemes are recorded and skipped.
+     * @return False if EOF had already been reached, True otherwise.
+     */
+    private boolean lex() {
+        while (true) {
+            /* if SPACE, we get the next char and continue */
+            do { currentChar = fStream.nextChar(); } while (currentChar == SPACE || currentChar == '\n');
+            this.tokOffset = fStream.getCharOffset();
+            if (this.spans) {
+                this.tokLine = fStream.getCharLine();
+                this.tokColumn = fStream.getCharColumn();
+            }
+
+            /* if we've reached EOF just keep returning EOF */
+            if (currentChar == EOF) { return eofToken(); }
+            /* check if character is some kind of punctuation */
+            if (punctuation.isPunctuation(currentChar)) {
+                setLexeme(punctuation.getPunc(currentChar));
             }
-            /* else if the next char is a letter */
-            if(isLetter(currentChar)){
-                String illegalReal = illegalAccumulator(buffer+".");
-                throw LexerError.IllegalRealConstant(lineNum, illegalReal);
+            /* check it its an operator (both simple and complex) */
+            else if (operators.isSimpleOp(currentChar)) {
+                setLexeme(operators.getSimpleOP(currentChar));
             }
-            /* otherwise, return an int constant */
-            fStream.pushBack(currentChar);
-            fStream.pushBack('.');
-            return new Token(TokenType.INTCONSTANT, buffer, lineNum);
+            else if (operators.isSpecialOP(currentChar)) {
+                /* pass control to the operator map */
+                setLexeme(operators.resolveSpecialOp(currentChar, this.tokType, fStream, punctuation));
+            }
+            /* maybe it's a number. */
+            else if (isNumber(currentChar)) {
+                this.length = 0;
+                append(currentChar);
+                if (!scan(S_INT, this.tokLine)) { continue; }
+            }
+            /* if not, try seeing if it's an identifier */
+            else if (validIdentStart(currentChar)) {
+                this.length = 0;
+                append(currentChar);
+                if (!scan(S_IDENT, this.tokLine)) { continue; }
+            }
+            /* otherwise, it must have been something the language does not accept */
+            else {
+                fStream.raise(LexerError.InvalidCharacter(this.tokLine, currentChar).at(this.tokLine, this.tokColumn));
+                continue;
+            }
+            return true;
         }
+    }
 
-        /* If the current character is an: e or E ==> Exp notation */
-        if(Character.toLowerCase(currentChar) == EXP){ return getScientific(buffer, lineNum, true); }
-
-        /* identifiers cannot begin with numbers */
-        if(isLetter(currentChar)){
-            String identifier = illegalAccumulator(buffer);
-            throw LexerError.IllegalIdentifierName(lineNum, identifier);
-        }
+    /**
+     * setLexeme: records a keyword, operator or punctuation lexeme.
+     * @param kind: the shared TokenKind.
+     */
+    private void setLexeme(TokenKind kind) {
+        this.tokKind = kind;
+        this.tokType = kind.getTokenType();
+        this.tokValue = kind.getValue();
+        this.tokLength = fStream.getCharOffset() + 1 - this.tokOffset;
+    }
 
-        /* return the general integer token */
-        fStream.pushBack(currentChar);
-        return new Token(TokenType.INTCONSTANT, buffer, lineNum);
+    /**
+     * setLexeme: records an identifier, constant or EOF lexeme.
+     * @param type: the TokenType.
+     * @param value: the value of the Token.
+     */
+    private void setLexeme(TokenType type, String value) {
+        this.tokKind = null;
+        this.tokType = type;
+        this.tokValue = value;
+        this.tokLength = (type == TokenType.ENDOFFILE) ? 0 : fStream.getCharOffset() + 1 - this.tokOffset;
     }
 
     /**
-     * getReal: returns the real number at this point in the file.
-     * @param buffer: the real number as a string.
-     * @param lineNum: the line number where the real starts.
-     * @return a real constant Token.
+     * charClass: maps a character to its column in the TRANSITIONS table.
+     *
+     * @param chr, the character being classified.
+     * @return the scanner character class.
      */
-    private Token getReal(String buffer, int lineNum) {
-        /* accumulate the decimal digits for the real */
-        while (isNumber(currentChar)) {
-            buffer += currentChar;
-            currentChar = fStream.nextChar();
-        }
-        /* if the current character is not a number */
-        if (Character.toLowerCase(currentChar) == EXP) { return getScientific(buffer, lineNum, false); }
+    private static int charClass(char chr) { return (chr < CharClass.SIZE) ? SCAN_CLASS[chr] : C_OTHER; }
 
-        /* real constants cannot cannot be followed by a letter immediately */
-        if (isLetter(currentChar)) {
-            String identifier = illegalAccumulator(buffer);
-            throw LexerError.IllegalRealConstant(lineNum, identifier);
-        }
+    /**
+     * classify: computes the scanner character class (used to fill SCAN_CLASS).
+     *
+     * @param chr, the character being classified.
+     * @return the scanner character class.
+     */
+    private static byte classify(char chr) {
+        if (CharClass.isDigit(chr)) { return C_DIGIT; }
+        if (Character.toLowerCase(chr) == EXP) { return C_EXP; }
+        if (CharClass.isLetter(chr)) { return C_LETTER; }
+        if (chr == '.') { return C_DOT; }
+        if (chr == '+' || chr == '-') { return C_SIGN; }
+        return C_OTHER;
+    }
 
-        fStream.pushBack(currentChar);
-        return new Token(TokenType.REALCONSTANT, buffer, lineNum);
+    /**
+     * append: adds a character to the scan buffer, growing it if needed.
+     * @param chr: the character being added.
+     */
+    private void append(char chr) {
+        if (this.length == this.buffer.length) { this.buffer = Arrays.copyOf(this.buffer, this.length * 2); }
+        this.buffer[this.length++] = chr;
     }
 
     /**
-     * getScientific: returns the scientific notation number at this point in the file.
-     * @param buffer: the SN number as a string.
-     * @param lineNum: the line number where the SN number starts.
-     * @param fromInt: if from integer context.
-     * @return a real or integer constant Token.
+     * lexeme: the contents of the scan buffer.
+     * @return the scan buffer as a String.
+     */
+    private String lexeme() { return new String(this.buffer, 0, this.length); }
+
+    /**
+     * scan: runs the TRANSITIONS table from the given start state over the
+     *       characters in the file. Used for identifiers and constants.
+     * Note: the first character of the lexeme must already be in the buffer.
+     * @param state: the start state (S_INT or S_IDENT).
+     * @param lineNum: the line number where the lexeme began in the file.
+     * Note: sets the lexeme to an identifier, keyword, integer constant or real constant.
+     * @return False if the lexeme was ill-formed (and skipped), True otherwise.
      */
-    private Token getScientific(String buffer, int lineNum, boolean fromInt) {
-        String afterE = "";
-        char lookAhead = fStream.nextChar();
+    private boolean scan(int state, int lineNum) {
+        /* has a decimal point been read, where is the exponent symbol and how was it written */
+        boolean real = false;
+        int expAt = -1;
+        char expChar = EXP;
 
-        if(isNumber(lookAhead)){
-            afterE = ""+lookAhead;
+        while (true) {
             currentChar = fStream.nextChar();
-            return accumulateExp(buffer, afterE, lineNum, fromInt, false);
-        }
-        if(isPlusOrMinus(lookAhead)){
-            char pastSign = fStream.nextChar();
-            if(isNumber(pastSign)){
-                afterE += "" + lookAhead + pastSign;
-                currentChar = fStream.nextChar();
-                return accumulateExp(buffer, afterE, lineNum, fromInt, true);
+            /* check if the identifier length exceeds the max */
+            if (state == S_IDENT && this.length > ID_MAX) {
+                return reject(LexerError.IllegalIdentifierLength(lineNum, lexeme(), ID_MAX));
+            }
+            int next = TRANSITIONS[state][charClass(currentChar)];
+            if (next < 0) { return accept(next, lineNum, real, expAt, expChar); }
+
+            if (next == S_FRAC) { real = true; }
+            /* keep the exponent symbol in lower case */
+            if (next == S_EXP) {
+                expAt = this.length;
+                expChar = currentChar;
+                append(EXP);
             }
-            else if(fromInt){ throw LexerError.IllegalIdentifierName(lineNum, buffer+currentChar); } // current char still e
-            else{ throw LexerError.IllegalRealConstant(lineNum, buffer+currentChar); } // current char still e
+            else { append(currentChar); }
+            state = next;
         }
-        fStream.pushBack(lookAhead);
-        String illegalVal = illegalAccumulator(buffer+EXP); // will always be: E
-        if(fromInt){ throw LexerError.IllegalIdentifierName(lineNum, illegalVal); }
-        throw LexerError.IllegalRealConstant(lineNum, illegalVal);
     }
 
     /**
-     * accumulateExp: an accumulator function for getScientific (helps out with the process).
-     * @param lineNum: the line number where the SN number starts.
-     * @param fromInt: if from integer context.
-     * @return a real or integer constant Token.
+     * accept: carries out the action that ended a scan.
+     * @param action: the (negative) action from the TRANSITIONS table.
+     * @param lineNum: the line number where the lexeme began in the file.
+     * @param real: True if the constant has a decimal point.
+     * @param expAt: the buffer index of the exponent symbol (-1 if none).
+     * @param expChar: the exponent symbol as written in the file.
+     * @return False if the action is an error (and the lexeme was skipped), True otherwise.
+     * @throws LexerError if the action is an error and there are no diagnostics.
      */
-    private Token accumulateExp(String before, String after, int lineNum, boolean fromInt, boolean hasSign){ // after exp sign
-        while(isNumber(currentChar)) {
-            after += currentChar;
-            currentChar = fStream.nextChar();
-        }
-        if(isLetter(currentChar) && hasSign){
-            if(fromInt){ throw  LexerError.IllegalIdentifierName(lineNum, before+EXP); }
-            throw LexerError.IllegalRealConstant(lineNum, before+EXP);
+    private boolean accept(int action, int lineNum, boolean real, int expAt, char expChar) {
+        switch (action) {
+            case A_INT:
+                fStream.pushBack(currentChar);
+                return intConstant(lineNum);
+
+            case A_INT_DOT:
+                /* a dot not followed by a number belongs to the next token */
+                fStream.pushBack(currentChar);
+                fStream.pushBack('.');
+                this.length--;
+                return intConstant(lineNum);
+
+            case A_REAL:
+                fStream.pushBack(currentChar);
+                return realConstant(lineNum, expAt);
+
+            case A_IDENT:
+                fStream.pushBack(currentChar);
+                /* check if the identifier was actually a keyword, straight from the buffer */
+                TokenKind keyword = keywords.getKeyword(this.buffer, this.length);
+                /* otherwise was just a normal identifier: fold and intern it */
+                setLexeme((keyword != null) ? keyword : symbols.identifier(this.buffer, this.length));
+                return true;
+
+            case E_AFTER_INT:
+                /* identifiers cannot begin with numbers */
+                return reject(LexerError.IllegalIdentifierName(lineNum, illegalAccumulator()));
+
+            case E_AFTER_DOT:
+            case E_AFTER_FRAC:
+                /* real constants cannot be followed by a letter immediately */
+                return reject(LexerError.IllegalRealConstant(lineNum, illegalAccumulator()));
+
+            case E_EXP:
+                /* the exponent symbol is reported twice: normalized and as written */
+                append(expChar);
+                return reject(illegalConstant(lineNum, real, illegalAccumulator()));
+
+            case E_EXP_SIGN:
+                /* report the constant up to the exponent symbol as written */
+                this.length = expAt;
+                append(expChar);
+                return reject(illegalConstant(lineNum, real, lexeme()));
+
+            case E_AFTER_SIGNED_EXP:
+                /* report the constant up to the exponent symbol */
+                this.length = expAt + 1;
+                return reject(illegalConstant(lineNum, real, lexeme()));
+
+            case E_AFTER_EXP:
+                return reject(illegalConstant(lineNum, real, illegalAccumulator()));
+
+            default:
+                /* should never reach here */
+                return true;
         }
+    }
 
-        if(isLetter(currentChar)){ /* used isLetter before */
-            String ident = illegalAccumulator(before+EXP+after);
-            if(fromInt){ throw LexerError.IllegalIdentifierName(lineNum, ident); }
-            throw LexerError.IllegalRealConstant(lineNum, ident);
+    /**
+     * intConstant: decodes the integer constant in the scan buffer and sets the lexeme.
+     * @param lineNum: the line number where the constant began in the file.
+     * @return False if the constant is out of range (and was skipped), True otherwise.
+     */
+    private boolean intConstant(int lineNum) {
+        long value = 0;
+        for (int k = 0; k < this.length; k++) {
+            value = value * 10 + (this.buffer[k] - '0');
+            if (value > INT_MAX) {
+                fStream.raise(LexerError.IllegalIntegerConstant(lineNum, lexeme(), INT_MAX).at(this.tokLine, this.tokColumn));
+                return false;
+            }
         }
-        String exp = before+EXP+after;
-        /* break loop when encounters a non number */
-        fStream.pushBack(currentChar);
-        return new Token(TokenType.REALCONSTANT, exp, lineNum);
+        setLexeme(TokenType.INTCONSTANT, lexeme());
+        this.tokInt = value;
+        return true;
     }
 
     /**
-     * getIdentifier: returns the identifier at this point in the file.
-     * @param buffer: the identifier as a string.
-     * @param lineNum: the line number where the identifier starts.
-     * @return an identifier Token.
+     * realConstant: decodes the real constant in the scan buffer and sets the lexeme.
+     * Note: like an integer constant, a real constant must fit: one that rounds to
+     *       infinity, or to zero although it has a non-zero digit, is out of range.
+     * @param lineNum: the line number where the constant began in the file.
+     * @param expAt: the buffer index of the exponent symbol (-1 if none).
+     * @return False if the constant is out of range (and was skipped), True otherwise.
      */
-    private Token getIdentifier(String buffer, int lineNum) {
-        /* retrieve the next character after the start of the identifier */
-        currentChar = fStream.nextChar();
-
-        while (validIdentBody(currentChar) && buffer.length() <= ID_MAX) {
-            buffer += currentChar;
-            currentChar = fStream.nextChar();
+    private boolean realConstant(int lineNum, int expAt) {
+        String constant = lexeme();
+        double value = Double.parseDouble(constant);
+        if (Double.isInfinite(value) || (value == 0 && hasNonZeroDigit(expAt < 0 ? this.length : expAt))) {
+            fStream.raise(LexerError.IllegalRealConstant(lineNum, constant, Double.MAX_VALUE, Double.MIN_VALUE).at(this.tokLine, this.tokColumn));
+            return false;
         }
-        /* check if the length exceeds the max */
-        if (buffer.length() > ID_MAX) { throw LexerError.IllegalIdentifierLength(fStream.getLineNum(), buffer, ID_MAX); }
+        setLexeme(TokenType.REALCONSTANT, constant);
+        this.tokReal = value;
+        return true;
+    }
 
-        /* otherwise must have not entered the loop for the other condition. Add back the current character */
-        fStream.pushBack(currentChar);
+    /**
+     * hasNonZeroDigit: is there a digit other than 0 in the scan buffer?
+     * @param end: the index after the last character looked at.
+     */
+    private boolean hasNonZeroDigit(int end) {
+        for (int k = 0; k < end; k++) {
+            if (this.buffer[k] >= '1' && this.buffer[k] <= '9') { return true; }
+        }
+        return false;
+    }
 
-        /* check if the identifier was actually a keyword */
-        if (keywords.isKeyword(buffer)) { return keywords.getKeyword(buffer, lineNum); }
+    /**
+     * illegalConstant: the error for an ill-formed constant.
+     * @param lineNum: the line number where the constant began in the file.
+     * @param real: True if the constant has a decimal point.
+     * @param constant: the ill-formed constant.
+     * @return the LexerError to raise.
+     */
+    private LexerError illegalConstant(int lineNum, boolean real, String constant) {
+        if (real) { return LexerError.IllegalRealConstant(lineNum, constant); }
+        return LexerError.IllegalIdentifierName(lineNum, constant);
+    }
 
-        /* otherwise was just a normal identifier */
-        return new Token(TokenType.IDENTIFIER, buffer.toUpperCase(), lineNum);
+    /**
+     * reject: raises the error for an ill-formed lexeme.
+     * With diagnostics, the rest of the lexeme is skipped and lexing carries
+     * on from the character after it.
+     * @param error: the LexerError.
+     * @return False, the lexeme was not set.
+     */
+    private boolean reject(LexerError error) {
+        fStream.raise(error.at(this.tokLine, this.tokColumn));
+        while (validIdentBody(currentChar)) { currentChar = fStream.nextChar(); }
+        fStream.pushBack(currentChar);
+        return false;
     }
 
     /**
      * illegalAccumulator: accumulates the rest of an illegal identifier
      *                          after it's already been detected. Passed to
      *                          the LexicalError.
-     * Note: RECURSIVE
-     * @param buffer: the already accumulated illegal identifier up until the detection point.
      * @return the full illegal identifier.
      */
-    private String illegalAccumulator(String buffer){
-        if(isNumber(currentChar) || isLetter(currentChar)){
-            buffer += currentChar;
+    private String illegalAccumulator() {
+        while (validIdentBody(currentChar)) {
+            append(currentChar);
             currentChar = fStream.nextChar();
-            return illegalAccumulator(buffer);
         }
-        return buffer;
+        return lexeme();
+    }
+
+    /**
+     * TokenSpliterator: lexes a Token per tryAdvance, up to ENDOFFILE.
+     */
+    private final class TokenSpliterator implements Spliterator<Token> {
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Token> action) {
+            if (!lex()) { return false; }
+            action.accept(token());
+            return true;
+        }
+
+        @Override
+        public Spliterator<Token> trySplit() { return null; }
+
+        @Override
+        public long estimateSize() { return Long.MAX_VALUE; }
+
+        @Override
+        public int characteristics() { return ORDERED | NONNULL; }
+    }
+
+    /**
+     * TypeSpliterator: lexes a lexeme per tryAdvance, up to ENDOFFILE, and hands over its TokenType ordinal.
+     */
+    private final class TypeSpliterator implements Spliterator.OfInt {
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (!lex()) { return false; }
+            action.accept(tokType.ordinal());
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() { return null; }
+
+        @Override
+        public long estimateSize() { return Long.MAX_VALUE; }
+
+        @Override
+        public int characteristics() { return ORDERED; }
     }
 
 } /* end of Tokenizer class */
\ No newline at end of file
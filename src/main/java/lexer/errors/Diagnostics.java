@@ -0,0 +1,94 @@
+/*
+ * File: Diagnostics.java
+ *
+ * Desc: collects lexical errors instead of
+ *       stopping at the first one.
+ *
+ */
+package main.java.lexer.errors;
+
+import java.io.PrintStream;
+
+/**
+ * Diagnostics class
+ *
+ * A fixed-size buffer of LexerErrors, allocated up front. A Tokenizer given
+ * a Diagnostics records every lexical error here, skips the offending
+ * characters and carries on, so one pass reports all the errors in a file.
+ * Errors past the capacity are only counted.
+ */
+public final class Diagnostics {
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /*
+     * - errors: the recorded errors, in the order they were found
+     * - count: the number of recorded errors
+     * - dropped: the number of errors found once the buffer was full
+     */
+    private final LexerError[] errors;
+    private int count;
+    private int dropped;
+
+    /**
+     * Diagnostics constructor
+     */
+    public Diagnostics(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Diagnostics constructor
+     * @param capacity: the number of errors kept.
+     */
+    public Diagnostics(int capacity){
+        this.errors = new LexerError[Math.max(capacity, 1)];
+    }
+
+    /**
+     * record: adds an error to the buffer.
+     * @param error: the located LexerError.
+     */
+    public void record(LexerError error){
+        if(this.count < this.errors.length){ this.errors[this.count++] = error; }
+        else{ this.dropped++; }
+    }
+
+    /**
+     * get: getter method for a recorded error.
+     * @param index: the index of the error (0 is the first found).
+     * @return the LexerError.
+     */
+    public LexerError get(int index){
+        if(index < 0 || index >= this.count){ throw new IndexOutOfBoundsException("Diagnostic "+index+" of "+this.count); }
+        return this.errors[index];
+    }
+
+    /**
+     * size: the number of recorded errors.
+     */
+    public int size(){ return this.count; }
+
+    /**
+     * getDropped: the number of errors found once the buffer was full.
+     */
+    public int getDropped(){ return this.dropped; }
+
+    /**
+     * hasErrors: checks if any error was found.
+     * @return True if an error was recorded or dropped, False otherwise.
+     */
+    public boolean hasErrors(){ return this.count + this.dropped > 0; }
+
+    /**
+     * print: writes one line per error, its message (which ends with its location, see Location).
+     * @param out: where to print.
+     */
+    public void print(PrintStream out){
+        for(int k = 0; k < this.count; k++){
+            out.println(this.errors[k].getMessage());
+        }
+        if(this.dropped > 0){ out.println("... "+this.dropped+" more lexical errors."); }
+    }
+
+} /* end of Diagnostics class */
@@ -6,35 +6,84 @@
  */
 package main.java.lexer.errors;
 
+import main.java.errors.Location;
+
 /**
  * LexerError
  * @author Luis Serazo
  */
 public class LexerError extends Error {
 
-    private LexerError(String msg){ super(msg); }
+    /*
+     * Location of the error (0 until the lexer sets it):
+     * - lineNum: the line of the offending character
+     * - column: the column of the offending character (1 based)
+     */
+    private int lineNum;
+    private int column;
+
+    /**
+     * LexerError constructor
+     * Note: errors are reported by message and location, no stack trace is filled in.
+     * @param msg: error message (without the location).
+     * @param lineNum: the line of the error, until at sets the exact location.
+     */
+    private LexerError(String msg, int lineNum){
+        super(msg, null, false, false);
+        this.lineNum = lineNum;
+    }
+
+    /**
+     * at: sets the location of the error.
+     * @param lineNum: the line of the offending character.
+     * @param column: the column of the offending character (1 based).
+     * @return this error.
+     */
+    public LexerError at(int lineNum, int column){
+        this.lineNum = lineNum;
+        this.column = column;
+        return this;
+    }
+
+    public int getLineNum(){ return this.lineNum; }
+
+    public int getColumn(){ return this.column; }
+
+    /**
+     * getMessage: the error message, followed by its location (see Location).
+     */
+    @Override
+    public String getMessage(){ return Location.describe(super.getMessage(), this.lineNum, this.column); }
 
     public static LexerError InvalidCharacter(int lineNum, char character){
-        return new LexerError("Invalid character: "+character+" found on line number: "+lineNum+".");
+        return new LexerError("Invalid character: "+character+" found.", lineNum);
     }
 
     public static LexerError IllegalComment(int lineNum, String form){
-        return new LexerError("Ill-formed comment on line: "+lineNum+". Comments cannot contain brackets. Cannot be of the form: "+form);
+        return new LexerError("Ill-formed comment. Comments cannot contain brackets. Cannot be of the form: "+form+".", lineNum);
     }
 
     public static LexerError UnclosedComment(int lineStart){
-        return new LexerError("Comment beginning on line: "+lineStart+" does not end. Please close all comments.");
+        return new LexerError("Comment does not end. Please close all comments.", lineStart);
     }
 
     public static LexerError IllegalIdentifierName(int lineNum, String ident){
-        return new LexerError("Illegal identifier: "+ident+" on line: "+lineNum+". Identifiers must be begin with a letter and have a body of only alphabetical and numerical characters");
+        return new LexerError("Illegal identifier: "+ident+". Identifiers must be begin with a letter and have a body of only alphabetical and numerical characters.", lineNum);
     }
 
     public static LexerError IllegalIdentifierLength(int lineNum, String ident, int max){
-        return new LexerError("Illegal identifier: "+ident+"... on line: "+lineNum+". Identifiers can not be longer than "+max+" characters.");
+        return new LexerError("Illegal identifier: "+ident+"... Identifiers can not be longer than "+max+" characters.", lineNum);
+    }
+
+    public static LexerError IllegalIntegerConstant(int lineNum, String constant, long max){
+        return new LexerError("Illegal integer constant: "+constant+". Integer constants can not be larger than "+max+".", lineNum);
     }
 
     public static LexerError IllegalRealConstant(int lineNum, String constant){
-        return new LexerError("Illegal real constant: "+constant+" on line: "+lineNum+". Real constants must be contain only one decimal point and each decimal point must be followed by at least one number.");
+        return new LexerError("Illegal real constant: "+constant+". Real constants must be contain only one decimal point and each decimal point must be followed by at least one number.", lineNum);
+    }
+
+    public static LexerError IllegalRealConstant(int lineNum, String constant, double max, double min){
+        return new LexerError("Illegal real constant: "+constant+". Real constants can not be larger than "+max+", or smaller than "+min+" unless they are 0.", lineNum);
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+ * File: ActionPipe.java
+ *
+ * Desc: contains the ActionPipe class, the semantic
+ *       actions running on a thread behind the parser.
+ *
+ */
+package main.java.parser;
+
+import main.java.lexer.Pipes;
+import main.java.semantics.SemanticActions;
+import main.java.token.Token;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ActionPipe class
+ *
+ * The parser puts every semantic action it pops into a bounded ring, with the
+ * Token it applies to and the line of the current Token; a thread takes them
+ * out in order and runs them. One producer (the parser) and one consumer (the
+ * action thread), so the ring needs no lock (see TokenPipe).
+ *
+ * The actions run exactly as they would on the parser thread. The first one
+ * that throws stops the thread, and what it threw is thrown to the parser by
+ * put or finish. Every action before it has run and none after it.
+ */
+final class ActionPipe {
+
+    /* number of slots (a power of two) */
+    private static final int CAPACITY = 1024;
+
+    /*
+     * The ring:
+     * - actions, tokens, lines: the action number, its Token and the current line
+     * - tail: the number of actions put (written by the parser)
+     * - head: the number of actions run (written by the action thread)
+     * - done: set once the parser has put the last action
+     * - failure: what the first failed action threw
+     */
+    private final int[] actions = new int[CAPACITY];
+    private final Token[] tokens = new Token[CAPACITY];
+    private final int[] lines = new int[CAPACITY];
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean done;
+    private volatile Throwable failure;
+
+    /*
+     * - semActions: only used by the action thread until finish returns
+     * - thread: the action thread
+     * - count, freeHead: the parser's tail, and head as last read by the parser
+     * - line: the line of the action being run (see getLine)
+     */
+    private final SemanticActions semActions;
+    private final Thread thread;
+    private long count;
+    private long freeHead;
+    private int line;
+
+    /**
+     * ActionPipe constructor
+     * Starts the action thread.
+     * @param semActions: the semantic actions of the program.
+     */
+    ActionPipe(SemanticActions semActions){
+        this.semActions = semActions;
+        this.thread = new Thread(this::drain, "semantic actions");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * put: queues a semantic action (waits while the ring is full).
+     * @param action: the action number.
+     * @param token: the Token it applies to (the previous Token).
+     * @param currentLine: the line of the current Token.
+     * @throws Error or RuntimeException if an earlier action failed.
+     */
+    void put(int action, Token token, int currentLine){
+        for(int idle = 0; count - freeHead == CAPACITY; idle++){
+            freeHead = head.get();
+            if(count - freeHead < CAPACITY){ break; }
+            if(failure != null){ throw Pipes.rethrow(failure); }
+            Pipes.idle(idle);
+        }
+        int slot = (int) count & (CAPACITY - 1);
+        actions[slot] = action;
+        tokens[slot] = token;
+        lines[slot] = currentLine;
+        tail.lazySet(++count);
+    }
+
+    /**
+     * finish: waits for every queued action to run and stops the thread.
+     * @throws Error or RuntimeException if an action failed.
+     */
+    void finish(){
+        done = true;
+        boolean interrupted = false;
+        while(true){
+            try{
+                thread.join();
+                break;
+            }
+            catch(InterruptedException e){ interrupted = true; }
+        }
+        if(interrupted){ Thread.currentThread().interrupt(); }
+        if(failure != null){ throw Pipes.rethrow(failure); }
+    }
+
+    /**
+     * getLine: the line of the current Token when the running action was put.
+     * Note: only meaningful on the action thread.
+     */
+    int getLine(){ return line; }
+
+    /**
+     * drain: the action thread, runs the actions in order until finish.
+     */
+    private void drain(){
+        long next = 0;
+        try{
+            for(int idle = 0; ; idle++){
+                /* read done before tail: once done is seen, tail is final */
+                boolean last = done;
+                long ready = tail.get();
+                if(next == ready){
+                    if(last){ return; }
+                    Pipes.idle(idle);
+                    continue;
+                }
+                for(; next < ready; next++){
+                    int slot = (int) next & (CAPACITY - 1);
+                    line = lines[slot];
+                    semActions.execute(actions[slot], tokens[slot]);
+                    tokens[slot] = null;
+                    head.lazySet(next + 1);
+                }
+                idle = 0;
+            }
+        }
+        catch(Throwable e){ failure = e; }
+    }
+
+} /* end of ActionPipe class */
@@ -0,0 +1,157 @@
+/*
+ * File: Grammar.java
+ *
+ * Desc: contains the Grammar class, the parse
+ *       tables shared by every Parser.
+ *
+ */
+package main.java.parser;
+
+import main.java.token.TokenType;
+import java.io.FileNotFoundException;
+import java.util.BitSet;
+
+/**
+ * Grammar class
+ *
+ * Everything a Parser needs to know about the language: the parse table, the
+ * productions (RHS, with their int codes and the symbols they decode to) and
+ * the FOLLOW set of every NonTerminal, used to recover from syntax errors.
+ * None of it changes once loaded, so a Grammar is safe to share between
+ * threads: the default one (see get) is loaded once per JVM and every Parser
+ * built after that only allocates its own stack.
+ */
+public final class Grammar {
+
+    /* the default grammar, loaded on first use */
+    private static Grammar shared;
+
+    /* the entry of the parse table when there is no production to predict */
+    private static final int ERROR = LL1.ERROR;
+
+    /*
+     * - table: the parse table (rule by TokenType and NonTerminal index)
+     * - rows: the number of rows of the table
+     * - rhs: the productions
+     * - follow: the FOLLOW set of each NonTerminal, by index (TokenType indexes)
+     */
+    private final ParseTable table;
+    private final int rows;
+    private final RHS rhs;
+    private final BitSet[] follow;
+
+    /**
+     * Grammar constructor
+     * @param table: the parse table.
+     * @param rhs: the productions.
+     * @param follow: the FOLLOW sets of the productions.
+     */
+    private Grammar(ParseTable table, RHS rhs, BitSet[] follow){
+        this.table = table;
+        this.rows = table.getRows();
+        this.rhs = rhs;
+        this.follow = follow;
+    }
+
+    /**
+     * get: the grammar of the language, loaded the first time it is asked for.
+     * @return the shared Grammar.
+     * @throws FileNotFoundException if the parse table cannot be found (see ParseTable.getDefault).
+     */
+    public static synchronized Grammar get() throws FileNotFoundException{
+        if(shared == null){
+            RHS rhs = new RHS();
+            shared = new Grammar(ParseTable.getDefault(), rhs, follow(rhs));
+        }
+        return shared;
+    }
+
+    /**
+     * of: the grammar of the language with another parse table.
+     * @param parseTablePath: the path to the parse table (as parse_table.dat).
+     * @return a new Grammar (the productions are shared with the default one).
+     * @throws FileNotFoundException if the parse table cannot be found.
+     */
+    public static Grammar of(String parseTablePath) throws FileNotFoundException{
+        Grammar grammar = get();
+        return new Grammar(new ParseTable(parseTablePath), grammar.rhs, grammar.follow);
+    }
+
+    /**
+     * follow: the FOLLOW sets of the productions (see LL1).
+     * @param rhs: the productions.
+     * @return the FOLLOW set of each NonTerminal, by index.
+     */
+    private static BitSet[] follow(RHS rhs){
+        NonTerminal[] left = Productions.lhs();
+        int[] lhs = new int[left.length];
+        int[][] productions = new int[left.length][];
+        int[] codes = rhs.getCodes();
+        for(int rule = 1; rule < left.length; rule++){
+            lhs[rule] = left[rule].getIndex();
+            /* the codes are stored reversed, LL1 reads them in order */
+            int length = rhs.getLength(rule);
+            int end = rhs.getStart(rule) + length - 1;
+            productions[rule] = new int[length];
+            for(int k = 0; k < length; k++){ productions[rule][k] = codes[end - k]; }
+        }
+        productions[0] = new int[0];
+
+        String[] names = new String[NonTerminal.values().length];
+        for(NonTerminal nt : NonTerminal.values()){ names[nt.getIndex()] = nt.name(); }
+        LL1 ll1 = new LL1(names, NonTerminal.Goal.getIndex(), TokenType.ENDOFFILE.getIndex(), lhs, productions);
+
+        BitSet[] follow = new BitSet[names.length];
+        for(int nt = 0; nt < names.length; nt++){ follow[nt] = ll1.getFollow(nt); }
+        return follow;
+    }
+
+    /**
+     * getRule: the production to predict.
+     * @param tokenIndex: the index of the current TokenType.
+     * @param nonTerminal: the index of the NonTerminal on top of the stack.
+     * @return the production number (negative for an empty one, ERROR if there is none).
+     * Note: TokenTypes without a row (ENDOFFILE) predict nothing.
+     */
+    int getRule(int tokenIndex, int nonTerminal){
+        return (tokenIndex < rows) ? table.getRule(tokenIndex, nonTerminal) : ERROR;
+    }
+
+    /**
+     * synchronizes: True if a Token may follow a NonTerminal (it is in its FOLLOW set),
+     *               so that parsing can resume there after a syntax error.
+     * @param tokenIndex: the index of the current TokenType.
+     * @param nonTerminal: the index of the NonTerminal.
+     */
+    boolean synchronizes(int tokenIndex, int nonTerminal){ return follow[nonTerminal].get(tokenIndex); }
+
+    /**
+     * getCodes: the codes of every production, each one reversed (see RHS).
+     * Note: the array is shared, not to be changed.
+     */
+    int[] getCodes(){ return rhs.getCodes(); }
+
+    /**
+     * getStart: where a production begins in getCodes.
+     * @param rule: the production number.
+     */
+    int getStart(int rule){ return rhs.getStart(rule); }
+
+    /**
+     * getLength: the number of symbols of a production.
+     * @param rule: the production number.
+     */
+    int getLength(int rule){ return rhs.getLength(rule); }
+
+    /**
+     * rulesToString: the symbols of a production, for debugging.
+     * @param rule: the production number.
+     */
+    String rulesToString(int rule){ return rhs.rulesToString(rule); }
+
+    /**
+     * getParseTable: the parse table of the grammar.
+     */
+    public ParseTable getParseTable(){ return table; }
+
+} /* end of Grammar class */
@@ -0,0 +1,453 @@
+/*
+ * File: GrammarCompiler.java
+ *
+ * Desc: contains the point of execution for generating
+ *       the parse tables from the grammar specification.
+ *
+ */
+package main.java.parser;
+
+import main.java.errors.CompilerError;
+import main.java.token.TokenType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * GrammarCompiler class, run by hand (or by the build) whenever the grammar changes.
+ *
+ * Usage: java GrammarCompiler [grammar-file] [parser-dir] [resources-dir] [--check (optional)]
+ *
+ * Reads the grammar (src/main/resources/grammar.txt), computes its FIRST and
+ * FOLLOW sets (see LL1) and generates everything that used to be written by hand:
+ * - parse_table.dat and parse_table.csv in resources-dir (the build compiles the
+ *   first into parse_table.bin, see ParseTableCompiler)
+ * - NonTerminal.java, SemanticAction.java and Productions.java (the RHS table) in parser-dir
+ * LL(1) conflicts are reported, and resolved as described in LL1.table.
+ * With --check nothing is written: the run fails if a generated file is out of date.
+ *
+ * The grammar is one production per line, numbered in order from 1:
+ *     nonterminal ::= symbol symbol ...
+ * where a symbol is a TokenType name (a terminal), a non-terminal name or #N
+ * (semantic action N). An empty right hand side is the empty string. Directives:
+ *     %nonterminals name name ...   the non-terminals, in index order (repeatable)
+ *     %actions N N ...              semantic actions not used by any production
+ *     %start name                   the start symbol
+ *     %prefer N N ...               productions that win a conflict (see LL1.table)
+ * Everything after // on a line is a comment.
+ */
+public class GrammarCompiler {
+
+    /* the notice at the top of every generated file */
+    private static final String GENERATED = "Generated by GrammarCompiler from grammar.txt, do not edit.";
+    /* generated lines are wrapped after this many characters */
+    private static final int LINE_WIDTH = 110;
+
+    /*
+     * The grammar as read:
+     * - nonTerminals: the non-terminal names, by index
+     * - actions: every semantic action number
+     * - start: the start non-terminal
+     * - preferred: the productions that win a conflict
+     * - lhs: the non-terminal index of each production (0 is unused)
+     * - rhs: the codes of each production (see RHS)
+     */
+    private final List<String> nonTerminals = new ArrayList<>();
+    private final Map<String, Integer> nonTerminalIndex = new HashMap<>();
+    private final TreeSet<Integer> actions = new TreeSet<>();
+    private String start;
+    private final BitSet preferred = new BitSet();
+    private final List<Integer> lhs = new ArrayList<>();
+    private final List<int[]> rhs = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 3 || args.length > 4 || (args.length == 4 && !args[3].equals("--check"))){
+            System.out.println("Usage: java GrammarCompiler [grammar-file] [parser-dir] [resources-dir] [--check (optional)]");
+            return;
+        }
+        GrammarCompiler grammar = new GrammarCompiler();
+        grammar.read(args[0]);
+
+        /* the LL(1) analysis, ENDOFFILE ends the input and has no row of its own */
+        int end = TokenType.ENDOFFILE.getIndex();
+        LL1 ll1 = new LL1(grammar.nonTerminals.toArray(new String[0]), grammar.nonTerminalIndex.get(grammar.start),
+                end, grammar.lhsArray(), grammar.rhs.toArray(new int[0][]));
+        List<String> conflicts = new ArrayList<>();
+        int[][] table = ll1.table(end, terminalNames(), grammar.preferred, conflicts);
+        for(String conflict : conflicts){ System.out.println("warning: "+conflict); }
+
+        Map<File, String> outputs = new LinkedHashMap<>();
+        outputs.put(new File(args[2], "parse_table.dat"), grammar.tableText(table));
+        outputs.put(new File(args[2], "parse_table.csv"), grammar.tableCsv(table));
+        outputs.put(new File(args[1], "NonTerminal.java"), grammar.nonTerminalJava());
+        outputs.put(new File(args[1], "SemanticAction.java"), grammar.semanticActionJava());
+        outputs.put(new File(args[1], "Productions.java"), grammar.productionsJava());
+
+        int stale = 0;
+        for(Map.Entry<File, String> output : outputs.entrySet()){
+            File file = output.getKey();
+            byte[] content = output.getValue().getBytes(StandardCharsets.UTF_8);
+            boolean same = file.isFile() && Arrays.equals(Files.readAllBytes(file.toPath()), content);
+            if(same){ continue; }
+            if(args.length == 4){
+                System.out.println(file+" is out of date");
+                stale++;
+            }
+            else{
+                Files.write(file.toPath(), content);
+                System.out.println("Wrote "+file);
+            }
+        }
+        System.out.println((grammar.rhs.size() - 1)+" productions, "+grammar.nonTerminals.size()+" non-terminals, "
+                +grammar.actions.size()+" semantic actions, "+conflicts.size()+" conflicts");
+        if(stale > 0){ System.exit(1); }
+    }
+
+    /**
+     * read: reads the grammar specification.
+     * @param path: the path to the grammar file.
+     * @throws IOException if the file cannot be read.
+     * @throws CompilerError if the grammar is malformed.
+     */
+    private void read(String path) throws IOException {
+        /* production 0 is the dummy element */
+        lhs.add(-1);
+        rhs.add(new int[0]);
+
+        List<String> lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+        List<String[]> productions = new ArrayList<>();
+        List<Integer> lineNums = new ArrayList<>();
+        for(int n = 0; n < lines.size(); n++){
+            String line = lines.get(n);
+            int comment = line.indexOf("//");
+            if(comment >= 0){ line = line.substring(0, comment); }
+            line = line.trim();
+            if(line.isEmpty()){ continue; }
+
+            String[] words = line.split("\\s+");
+            String where = path+":"+(n + 1)+": ";
+            if(words[0].equals("%nonterminals")){
+                for(int k = 1; k < words.length; k++){
+                    if(nonTerminalIndex.put(words[k], nonTerminals.size()) != null){ throw new CompilerError(where+"non-terminal "+words[k]+" declared twice"); }
+                    nonTerminals.add(words[k]);
+                }
+            }
+            else if(words[0].equals("%actions")){
+                for(int k = 1; k < words.length; k++){ actions.add(number(words[k], where)); }
+            }
+            else if(words[0].equals("%start") && words.length == 2){ start = words[1]; }
+            else if(words[0].equals("%prefer")){
+                for(int k = 1; k < words.length; k++){ preferred.set(production(words[k], where)); }
+            }
+            else if(words.length >= 2 && words[1].equals("::=")){
+                productions.add(words);
+                lineNums.add(n + 1);
+            }
+            else{ throw new CompilerError(where+"expected a production or a directive"); }
+        }
+
+        /* the symbols are resolved once every non-terminal is declared */
+        for(int p = 0; p < productions.size(); p++){
+            String[] words = productions.get(p);
+            String where = path+":"+lineNums.get(p)+": ";
+            lhs.add(nonTerminal(words[0], where));
+            int[] codes = new int[words.length - 2];
+            for(int k = 2; k < words.length; k++){ codes[k - 2] = code(words[k], where); }
+            rhs.add(codes);
+        }
+
+        if(preferred.length() >= rhs.size()){ throw new CompilerError(path+": %prefer names production "+(preferred.length() - 1)+", which does not exist"); }
+        if(start == null || !nonTerminalIndex.containsKey(start)){ throw new CompilerError(path+": missing or unknown %start"); }
+        for(int nt = 0; nt < nonTerminals.size(); nt++){
+            if(!lhs.contains(nt)){ throw new CompilerError(path+": non-terminal "+nonTerminals.get(nt)+" has no production"); }
+        }
+    }
+
+    /**
+     * code: the code of a symbol (see RHS).
+     */
+    private int code(String word, String where){
+        if(word.startsWith("#")){
+            int action = number(word.substring(1), where);
+            actions.add(action);
+            return RHS.ACTION | action;
+        }
+        if(nonTerminalIndex.containsKey(word)){ return RHS.NONTERMINAL | nonTerminalIndex.get(word); }
+        try{ return RHS.TERMINAL | TokenType.valueOf(word).getIndex(); }
+        catch(IllegalArgumentException e){ throw new CompilerError(where+"unknown symbol "+word); }
+    }
+
+    /**
+     * nonTerminal: the index of a declared non-terminal.
+     */
+    private int nonTerminal(String word, String where){
+        Integer index = nonTerminalIndex.get(word);
+        if(index == null){ throw new CompilerError(where+"undeclared non-terminal "+word); }
+        return index;
+    }
+
+    /**
+     * number: a semantic action number (it must fit in the index of a code).
+     */
+    private static int number(String word, String where){
+        try{
+            int n = Integer.parseInt(word);
+            if(n > 0 && n <= RHS.INDEX){ return n; }
+        }
+        catch(NumberFormatException e){ /* reported below */ }
+        throw new CompilerError(where+"bad semantic action "+word);
+    }
+
+    /**
+     * production: a production number.
+     */
+    private static int production(String word, String where){
+        try{
+            int n = Integer.parseInt(word);
+            if(n > 0){ return n; }
+        }
+        catch(NumberFormatException e){ /* reported below */ }
+        throw new CompilerError(where+"bad production number "+word);
+    }
+
+    /**
+     * lhsArray: the non-terminal index of each production.
+     */
+    private int[] lhsArray(){
+        int[] array = new int[lhs.size()];
+        for(int p = 0; p < array.length; p++){ array[p] = lhs.get(p); }
+        return array;
+    }
+
+    /**
+     * terminalNames: the TokenType names by index.
+     */
+    private static String[] terminalNames(){
+        String[] names = new String[TokenType.values().length];
+        for(TokenType type : TokenType.values()){ names[type.getIndex()] = type.name(); }
+        return names;
+    }
+
+    /**
+     * symbol: the Java expression of a code.
+     */
+    private String symbol(int code){
+        switch(code & RHS.TAG){
+            case RHS.TERMINAL: return "TokenType."+terminalNames()[code & RHS.INDEX];
+            case RHS.NONTERMINAL: return "NonTerminal."+nonTerminals.get(code & RHS.INDEX);
+            default: return "SemanticAction.action"+(code & RHS.INDEX);
+        }
+    }
+
+    /**
+     * tableText: the parse table as read by ParseTable, a row per terminal.
+     */
+    private String tableText(int[][] table){
+        StringBuilder text = new StringBuilder();
+        for(int[] row : table){
+            for(int col = 0; col < row.length; col++){ text.append((col == 0) ? "" : " ").append(String.format("%4d", row[col])); }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * tableCsv: the parse table with its headings, for reading.
+     */
+    private String tableCsv(int[][] table){
+        StringBuilder csv = new StringBuilder();
+        for(String nt : nonTerminals){ csv.append(",<").append(nt.replace('_', '-')).append('>'); }
+        csv.append('\n');
+        String[] terminals = terminalNames();
+        for(int row = 0; row < table.length; row++){
+            csv.append(terminals[row].toLowerCase());
+            for(int entry : table[row]){ csv.append(',').append(entry); }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * nonTerminalJava: the NonTerminal enum.
+     */
+    private String nonTerminalJava(){
+        StringBuilder constants = new StringBuilder();
+        for(int nt = 0; nt < nonTerminals.size(); nt++){
+            constants.append("    ").append(nonTerminals.get(nt)).append('(').append(nt).append(')')
+                    .append((nt == nonTerminals.size() - 1) ? ";" : ",").append('\n');
+        }
+        return "/*\n"
+                + " * File: NonTerminal.java\n"
+                + " *\n"
+                + " * Desc: contains the NonTerminal enumerable.\n"
+                + " *       "+GENERATED+"\n"
+                + " *\n"
+                + " */\n"
+                + "package main.java.parser;\n"
+                + "import main.java.grammar.GrammarSymbol;\n"
+                + "\n"
+                + "/**\n"
+                + " * NonTerminal enum\n"
+                + " */\n"
+                + "public enum NonTerminal implements GrammarSymbol{\n"
+                + constants
+                + "\n"
+                + "    /* enum index */\n"
+                + "    private int index;\n"
+                + "\n"
+                + "    /**\n"
+                + "     * NonTerminal: enum constructor.\n"
+                + "     * @param index, the NT index.\n"
+                + "     */\n"
+                + "    NonTerminal(int index){ this.index = index; }\n"
+                + symbolMethods("GS", false, true, false)
+                + "\n"
+                + "} /* end of NonTerminal class */\n";
+    }
+
+    /**
+     * semanticActionJava: the SemanticAction enum.
+     */
+    private String semanticActionJava(){
+        StringBuilder constants = new StringBuilder();
+        for(int action : actions){
+            constants.append("    action").append(action).append('(').append(action).append(')')
+                    .append((action == actions.last()) ? ";" : ",").append('\n');
+        }
+        return "/*\n"
+                + " * File: SemanticAction\n"
+                + " *\n"
+                + " * Desc: Semantic action types.\n"
+                + " *       "+GENERATED+"\n"
+                + " *\n"
+                + " */\n"
+                + "package main.java.parser;\n"
+                + "import main.java.grammar.GrammarSymbol;\n"
+                + "\n"
+                + "/**\n"
+                + " * SemanticAction enum\n"
+                + " */\n"
+                + "public enum SemanticAction implements GrammarSymbol{\n"
+                + constants
+                + "\n"
+                + "    /* action index */\n"
+                + "    private int index;\n"
+                + "\n"
+                + "    /**\n"
+                + "     * SemanticAction constructor\n"
+                + "     * @param index: an integer\n"
+                + "     */\n"
+                + "    SemanticAction(int index){ this.index = index; }\n"
+                + symbolMethods("GS", false, false, true)
+                + "}\n";
+    }
+
+    /**
+     * symbolMethods: the GrammarSymbol methods of a generated enum.
+     */
+    private static String symbolMethods(String name, boolean token, boolean nonTerminal, boolean action){
+        return "\n"
+                + "    /**\n"
+                + "     * getIndex: returns the index of this GrammarSymbol\n"
+                + "     * @return the "+name+" index\n"
+                + "     */\n"
+                + "    public int getIndex(){ return this.index; }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * isToken: determines if this GrammarSymbol is a Token\n"
+                + "     * @return True if the GS is a Token, False otherwise\n"
+                + "     */\n"
+                + "    public boolean isToken(){ return "+token+"; }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * isNonTerminal: determines if this GrammarSymbol is a NonTerminal\n"
+                + "     * @return True if the GS is a NonTerminal, False otherwise\n"
+                + "     */\n"
+                + "    public boolean isNonTerminal(){ return "+nonTerminal+"; }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * isSemAction: determines if the GrammarSymbol is a SemanticAction\n"
+                + "     * @return True if the GS is a SemanticAction, False otherwise\n"
+                + "     */\n"
+                + "    public boolean isSemAction(){ return "+action+"; }\n";
+    }
+
+    /**
+     * productionsJava: the Productions class (the symbols of every production).
+     */
+    private String productionsJava(){
+        StringBuilder left = new StringBuilder();
+        StringBuilder right = new StringBuilder();
+        for(int p = 1; p < rhs.size(); p++){
+            String separator = (p == rhs.size() - 1) ? "" : ",";
+            left.append("                NonTerminal.").append(nonTerminals.get(lhs.get(p))).append(separator)
+                    .append(" /* production ").append(p).append(" */\n");
+
+            right.append("/* production ").append(p).append(" */\n");
+            StringBuilder line = new StringBuilder("                {");
+            int[] codes = rhs.get(p);
+            for(int k = 0; k < codes.length; k++){
+                String sym = " "+symbol(codes[k])+((k == codes.length - 1) ? "" : ",");
+                if(line.length() + sym.length() > LINE_WIDTH){
+                    right.append(line).append('\n');
+                    line = new StringBuilder("                       ");
+                }
+                line.append(sym);
+            }
+            right.append(line).append(" }").append(separator).append('\n');
+        }
+        return "/*\n"
+                + " * File: Productions.java\n"
+                + " *\n"
+                + " * Desc: the productions of the grammar.\n"
+                + " *       "+GENERATED+"\n"
+                + " *\n"
+                + " */\n"
+                + "package main.java.parser;\n"
+                + "\n"
+                + "import main.java.grammar.GrammarSymbol;\n"
+                + "import main.java.token.TokenType;\n"
+                + "\n"
+                + "/**\n"
+                + " * Productions class: the left and right hand side of every production,\n"
+                + " * by production number (see RHS).\n"
+                + " */\n"
+                + "final class Productions {\n"
+                + "\n"
+                + "    private Productions() { }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * lhs: the NonTerminal of each production (the first one is unused).\n"
+                + "     */\n"
+                + "    static NonTerminal[] lhs() {\n"
+                + "        return new NonTerminal[] {\n"
+                + "                null, /* dummy element */\n"
+                + left
+                + "        };\n"
+                + "    }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * rhs: the symbols of each production (the first one is unused).\n"
+                + "     */\n"
+                + "    static GrammarSymbol[][] rhs() {\n"
+                + "        return new GrammarSymbol[][] {\n"
+                + "\n"
+                + "/* dummy element */\n"
+                + "                {},\n"
+                + right
+                + "        };\n"
+                + "    }\n"
+                + "\n"
+                + "} /* end of Productions class */\n";
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * File: LL1.java
+ *
+ * Desc: contains the LL1 class, the FIRST and FOLLOW
+ *       sets of a grammar and its LL(1) parse table.
+ *
+ */
+package main.java.parser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * LL1 class
+ *
+ * Works on productions coded as in RHS (terminal, non-terminal and action
+ * codes, in order, not reversed). Semantic actions derive the empty string,
+ * so they are skipped when computing the sets. Sets of terminals are BitSets
+ * of TokenType indexes.
+ */
+final class LL1 {
+
+    /* the entry of the parse table when there is no production to predict */
+    static final int ERROR = 999;
+
+    /*
+     * - lhs: the NonTerminal index of each production (0 is unused)
+     * - rhs: the codes of each production
+     * - names: the names of the NonTerminals (for messages)
+     * - nullable: the NonTerminals that derive the empty string
+     * - first, follow: FIRST and FOLLOW of each NonTerminal
+     */
+    private final int[] lhs;
+    private final int[][] rhs;
+    private final String[] names;
+    private final boolean[] nullable;
+    private final BitSet[] first;
+    private final BitSet[] follow;
+
+    /**
+     * LL1 constructor: computes the sets.
+     * @param names: the names of the NonTerminals, by index.
+     * @param start: the index of the start NonTerminal.
+     * @param end: the index of the terminal ending the input (in FOLLOW of the start).
+     * @param lhs: the NonTerminal index of each production (0 is unused).
+     * @param rhs: the codes of each production.
+     */
+    LL1(String[] names, int start, int end, int[] lhs, int[][] rhs){
+        this.names = names;
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.nullable = new boolean[names.length];
+        this.first = new BitSet[names.length];
+        this.follow = new BitSet[names.length];
+        for(int nt = 0; nt < names.length; nt++){
+            first[nt] = new BitSet();
+            follow[nt] = new BitSet();
+        }
+
+        computeFirst();
+        follow[start].set(end);
+        computeFollow();
+    }
+
+    /**
+     * computeFirst: nullable and FIRST of every NonTerminal, iterated to a fixed point.
+     */
+    private void computeFirst(){
+        boolean changed = true;
+        while(changed){
+            changed = false;
+            for(int p = 1; p < rhs.length; p++){
+                int nt = lhs[p];
+                int before = first[nt].cardinality();
+                first[nt].or(first(rhs[p], 0));
+                if(first[nt].cardinality() != before){ changed = true; }
+                if(!nullable[nt] && nullable(rhs[p], 0)){
+                    nullable[nt] = true;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * computeFollow: FOLLOW of every NonTerminal, iterated to a fixed point.
+     */
+    private void computeFollow(){
+        boolean changed = true;
+        while(changed){
+            changed = false;
+            for(int p = 1; p < rhs.length; p++){
+                int[] codes = rhs[p];
+                for(int k = 0; k < codes.length; k++){
+                    if((codes[k] & RHS.TAG) != RHS.NONTERMINAL){ continue; }
+                    BitSet set = follow[codes[k] & RHS.INDEX];
+                    int before = set.cardinality();
+                    set.or(first(codes, k + 1));
+                    if(nullable(codes, k + 1)){ set.or(follow[lhs[p]]); }
+                    if(set.cardinality() != before){ changed = true; }
+                }
+            }
+        }
+    }
+
+    /**
+     * first: FIRST of the symbols codes[from..].
+     */
+    BitSet first(int[] codes, int from){
+        BitSet set = new BitSet();
+        for(int k = from; k < codes.length; k++){
+            int code = codes[k];
+            switch(code & RHS.TAG){
+                case RHS.TERMINAL:
+                    set.set(code & RHS.INDEX);
+                    return set;
+                case RHS.NONTERMINAL:
+                    set.or(first[code & RHS.INDEX]);
+                    if(!nullable[code & RHS.INDEX]){ return set; }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * nullable: True if the symbols codes[from..] derive the empty string.
+     */
+    boolean nullable(int[] codes, int from){
+        for(int k = from; k < codes.length; k++){
+            int code = codes[k];
+            if((code & RHS.TAG) == RHS.TERMINAL){ return false; }
+            if((code & RHS.TAG) == RHS.NONTERMINAL && !nullable[code & RHS.INDEX]){ return false; }
+        }
+        return true;
+    }
+
+    /**
+     * isNullable: True if a NonTerminal derives the empty string.
+     */
+    boolean isNullable(int nt){ return nullable[nt]; }
+
+    /**
+     * getFirst: FIRST of a NonTerminal (not to be changed).
+     */
+    BitSet getFirst(int nt){ return first[nt]; }
+
+    /**
+     * getFollow: FOLLOW of a NonTerminal (not to be changed).
+     */
+    BitSet getFollow(int nt){ return follow[nt]; }
+
+    /**
+     * table: the LL(1) parse table, by terminal and NonTerminal index. A production
+     *        is predicted on FIRST of its symbols, and on FOLLOW of its NonTerminal
+     *        when the symbols derive the empty string. Empty productions are
+     *        entered negated, cells without a production hold ERROR.
+     * Note: when a cell gets two productions (a conflict) the one predicted on FIRST
+     *       wins over one predicted on FOLLOW, then a preferred one wins, then the
+     *       earlier one wins. Every conflict is described in conflicts.
+     * @param terminals: the number of rows (terminals at or past it are an error).
+     * @param terminalNames: the names of the terminals, by index (for messages).
+     * @param preferred: the productions that win a tie.
+     * @param conflicts: receives a message per conflict and per entry that has no row.
+     * @return the parse table.
+     */
+    int[][] table(int terminals, String[] terminalNames, BitSet preferred, List<String> conflicts){
+        int[][] table = new int[terminals][names.length];
+        /* how each entry was predicted: 0 none, 2 on FOLLOW, 4 on FIRST, plus 1 if preferred */
+        int[][] how = new int[terminals][names.length];
+        for(int[] row : table){ Arrays.fill(row, ERROR); }
+
+        for(int p = 1; p < rhs.length; p++){
+            int nt = lhs[p];
+            BitSet onFirst = first(rhs[p], 0);
+            BitSet onFollow = nullable(rhs[p], 0) ? follow[nt] : new BitSet();
+            BitSet all = (BitSet) onFirst.clone();
+            all.or(onFollow);
+
+            int entry = (rhs[p].length == 0) ? -p : p;
+            for(int t = all.nextSetBit(0); t >= 0; t = all.nextSetBit(t + 1)){
+                if(t >= terminals){
+                    conflicts.add("Production "+p+" ("+names[nt]+") is predicted on "+terminalNames[t]+", which has no row");
+                    continue;
+                }
+                int kind = (onFirst.get(t) ? 4 : 2) + (preferred.get(p) ? 1 : 0);
+                if(table[t][nt] == ERROR){
+                    table[t][nt] = entry;
+                    how[t][nt] = kind;
+                    continue;
+                }
+                int other = Math.abs(table[t][nt]);
+                conflicts.add("Conflict on "+names[nt]+" and "+terminalNames[t]+": productions "+other+" and "+p
+                        +", "+((kind > how[t][nt]) ? p : other)+" is used");
+                if(kind > how[t][nt]){
+                    table[t][nt] = entry;
+                    how[t][nt] = kind;
+                }
+            }
+        }
+        return table;
+    }
+
+} /* end of LL1 class */
@@ -2,6 +2,7 @@
  * File: NonTerminal.java
  *
  * Desc: contains the NonTerminal enumerable.
+ *       Generated by GrammarCompiler from grammar.txt, do not edit.
  *
  */
 package main.java.parser;
@@ -23,7 +24,8 @@ public enum NonTerminal implements GrammarSymbol{
     standard_type(9),
     array_type(10),
     subprogram_declaration(11),
-    subprogram_head(12), arguments(13),
+    subprogram_head(12),
+    arguments(13),
     parameter_list(14),
     parameter_list_tail(15),
     statement_list(16),
@@ -82,5 +84,4 @@ public enum NonTerminal implements GrammarSymbol{
      */
     public boolean isSemAction(){ return false; }
 
-
 } /* end of NonTerminal class */
@@ -0,0 +1,131 @@
+/*
+ * File: ParseBenchmark.java
+ *
+ * Desc: contains the point of execution
+ *       for measuring parser throughput.
+ *
+ */
+package main.java.parser;
+
+import main.java.lexer.Source;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+/**
+ * ParseBenchmark class used for timing the parse loop.
+ *
+ * Usage: java ParseBenchmark [file-path] [iterations (optional)]
+ *
+ * The program is read once. Each pass pretokenizes it, either into a new
+ * Parser or by resetting the same one (both timed), then times Parser.run
+ * (the LL(1) loop and the semantic actions). It also times a whole streamed
+ * parse (lexing included), on one thread and in pipeline mode (see
+ * Parser.pipelineMode). What the parser prints is thrown away while timing.
+ */
+public class ParseBenchmark {
+
+    /* number of untimed passes used to warm up the JIT */
+    private static final int WARMUP = 50;
+    private static final int DEFAULT_ITERATIONS = 500;
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1 || args.length > 2){
+            System.out.println("Usage: java ParseBenchmark [file-path] [iterations (optional)]");
+            return;
+        }
+        int iterations = (args.length == 2) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        byte[] program = Files.readAllBytes(new File(args[0]).toPath());
+
+        PrintStream out = System.out;
+        out.println("Benchmarking parser on: "+args[0]+" ("+program.length+" bytes, "+iterations+" iterations)");
+        System.setOut(new PrintStream(new OutputStream(){
+            @Override
+            public void write(int b){ }
+
+            @Override
+            public void write(byte[] b, int off, int len){ }
+        }));
+        try{
+            Parser reused = new Parser(Source.of(args[0], program), true);
+            long[] created = new long[2];
+            long[] reset = new long[2];
+            long[] run = new long[2];
+            long[] streamed = new long[2];
+            long[] pipelined = new long[2];
+            for(int k = 0; k < WARMUP; k++){
+                parse(args[0], program, null, created, run);
+                parse(args[0], program, reused, reset, run);
+                stream(args[0], program, false, streamed);
+                stream(args[0], program, true, pipelined);
+            }
+
+            created = new long[]{ 0, Long.MAX_VALUE };
+            reset = new long[]{ 0, Long.MAX_VALUE };
+            run = new long[]{ 0, Long.MAX_VALUE };
+            streamed = new long[]{ 0, Long.MAX_VALUE };
+            pipelined = new long[]{ 0, Long.MAX_VALUE };
+            for(int k = 0; k < iterations; k++){
+                parse(args[0], program, null, created, run);
+                parse(args[0], program, reused, reset, run);
+                stream(args[0], program, false, streamed);
+                stream(args[0], program, true, pipelined);
+            }
+            report(out, "new Parser", created, iterations);
+            report(out, "reset", reset, iterations);
+            report(out, "run", run, 2 * iterations);
+            report(out, "stream", streamed, iterations);
+            report(out, "pipeline", pipelined, iterations);
+        }
+        finally{ System.setOut(out); }
+    }
+
+    /**
+     * parse: gets a parser ready for the program and runs it.
+     * @param parser: the parser to reset (null for a new one).
+     * @param setUp: total and best time getting the parser ready, in nanoseconds.
+     * @param run: total and best time spent in Parser.run, in nanoseconds.
+     */
+    private static void parse(String name, byte[] program, Parser parser, long[] setUp, long[] run) throws IOException {
+        long start = System.nanoTime();
+        if(parser == null){ parser = new Parser(Source.of(name, program), true); }
+        else{ parser.reset(Source.of(name, program)); }
+        long ready = System.nanoTime();
+        parser.run();
+        long end = System.nanoTime();
+
+        add(setUp, ready - start);
+        add(run, end - ready);
+    }
+
+    /**
+     * stream: parses the program as it is lexed, start to end.
+     * @param pipeline: if True, in pipeline mode.
+     * @param times: total and best time, in nanoseconds.
+     */
+    private static void stream(String name, byte[] program, boolean pipeline, long[] times) throws IOException {
+        long start = System.nanoTime();
+        Parser parser = new Parser(Source.of(name, program), false);
+        if(pipeline){ parser.pipelineMode(); }
+        parser.run();
+        add(times, System.nanoTime() - start);
+    }
+
+    /**
+     * add: adds a pass to a total and best time.
+     */
+    private static void add(long[] times, long nanos){
+        times[0] += nanos;
+        times[1] = Math.min(times[1], nanos);
+    }
+
+    /**
+     * report: prints the total and best time of one step.
+     */
+    private static void report(PrintStream out, String label, long[] times, int passes){
+        out.printf("%-10s %10.1f us/pass (mean) %10.1f us/pass (best)%n", label, times[0] / 1e3 / passes, times[1] / 1e3);
+    }
+}
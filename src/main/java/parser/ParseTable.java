@@ -5,12 +5,24 @@
  */
 package main.java.parser;
 
+import main.java.errors.CompilerError;
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Scanner;
 
 /**
  * ParseTable: wrapper class for parsetable.dat data
+ *
+ * The default table is read once per JVM (see getDefault) from the classpath
+ * resource parse_table.bin, which the build compiles from parse_table.dat
+ * (see ParseTableCompiler). A ParseTable is never changed once loaded, so the
+ * default one is shared by every Parser (see Grammar).
  * @author Luis Serazo
  */
 public class ParseTable {
@@ -18,63 +30,130 @@ public class ParseTable {
     /* default path to the parse table data */
     private static final String DEFAULT_PATH = "src/main/resources/parse_table.dat";
 
+    /*
+     * Classpath resources of the default table:
+     * - BINARY: the compiled table (see write)
+     * - TEXT: the table as written (used when the build did not compile it)
+     */
+    private static final String BINARY = "/parse_table.bin";
+    private static final String TEXT = "/parse_table.dat";
+
+    /* first int of the compiled table ("PTB" and the format version) */
+    private static final int MAGIC = 0x50544201;
+
+    /* the default table, loaded on first use */
+    private static ParseTable shared;
+
     /* save the abstract file from the pathname */
-    private File parseData;
+    private final File parseData;
 
     /* save the data to a 2-dim array */
-    private int[][] parseMatrix;
+    private final int[][] parseMatrix;
     private static final int ROWS = 35;
     private static final int COLS = 38;
 
     /**
      * ParseTable constructor
+     * @param filePath: location of a different parse file
      * @throws FileNotFoundException if we cannot locate the file.
      */
-    ParseTable() throws FileNotFoundException{
-        parseMatrix = new int[ROWS][COLS];
-        loadMatrix();
+    ParseTable(String filePath) throws FileNotFoundException{
+        parseData = new File(filePath);
+        parseMatrix = loadMatrix(new Scanner(parseData.getAbsoluteFile()));
     }
 
     /**
      * ParseTable constructor
-     * @param filePath: location of a different parse file
-     * @throws FileNotFoundException if we cannot locate the file.
+     * @param parseMatrix: the rules, already loaded.
      */
-    ParseTable(String filePath) throws FileNotFoundException{
-        parseMatrix = new int[ROWS][COLS];
-        loadMatrix(filePath);
+    private ParseTable(int[][] parseMatrix){
+        this.parseData = null;
+        this.parseMatrix = parseMatrix;
     }
 
     /**
-     * loadMatrix: routine for saving the data in parsetable.dat to the table matrix.
-     * @throws FileNotFoundException if file unable to be found
+     * getDefault: the parse table of the language, loaded the first time it is asked for.
+     * Note: looks for the compiled table on the classpath, then for parse_table.dat
+     *       on the classpath and last in src/main/resources (from the working directory).
+     * @return the shared ParseTable.
+     * @throws FileNotFoundException if the table cannot be found anywhere.
      */
-    private void loadMatrix() throws FileNotFoundException{
-        parseData = new File(DEFAULT_PATH);
-        Scanner scanner = new Scanner(parseData.getAbsoluteFile());
+    static synchronized ParseTable getDefault() throws FileNotFoundException{
+        if(shared == null){ shared = loadDefault(); }
+        return shared;
+    }
+
+    /**
+     * loadDefault: reads the default table from wherever it is found first (see getDefault).
+     */
+    private static ParseTable loadDefault() throws FileNotFoundException{
+        InputStream binary = ParseTable.class.getResourceAsStream(BINARY);
+        if(binary != null){
+            try(DataInputStream in = new DataInputStream(new BufferedInputStream(binary))){
+                return new ParseTable(read(in));
+            }
+            catch(IOException e){ throw new CompilerError("Cannot read the parse table resource "+BINARY+": "+e.getMessage()); }
+        }
+
+        InputStream text = ParseTable.class.getResourceAsStream(TEXT);
+        if(text != null){
+            return new ParseTable(loadMatrix(new Scanner(text)));
+        }
+        return new ParseTable(DEFAULT_PATH);
+    }
 
+    /**
+     * loadMatrix: routine for saving the data in parsetable.dat to the table matrix.
+     * @param scanner: reads the table (closed once read).
+     * @return the table matrix.
+     */
+    private static int[][] loadMatrix(Scanner scanner){
+        int[][] matrix = new int[ROWS][COLS];
         for(int row = 0; row < ROWS; row++){
             for(int col = 0; col < COLS; col++){
-                parseMatrix[row][col] = scanner.nextInt();
+                matrix[row][col] = scanner.nextInt();
             }
         }
         scanner.close();
+        return matrix;
     }
 
     /**
-     * loadMatrix: routine for saving the data in parsetable.dat to the table matrix.
-     * @throws FileNotFoundException if file unable to be found
+     * write: writes the table in its compiled form: MAGIC, the number of rows and
+     *        columns, then every rule row by row (as shorts).
+     * @param out: where the table is written.
+     * @throws IOException if the table cannot be written.
      */
-    private void loadMatrix(String filePath) throws FileNotFoundException{
-        parseData = new File(filePath);
-        Scanner scanner = new Scanner(parseData.getAbsoluteFile());
+    void write(DataOutput out) throws IOException{
+        out.writeInt(MAGIC);
+        out.writeShort(ROWS);
+        out.writeShort(COLS);
+        for(int row = 0; row < ROWS; row++){
+            for(int col = 0; col < COLS; col++){
+                out.writeShort(parseMatrix[row][col]);
+            }
+        }
+    }
+
+    /**
+     * read: reads a table written by write.
+     * @param in: where the table is read from.
+     * @return the table matrix.
+     * @throws IOException if the table cannot be read or is not a compiled table.
+     */
+    private static int[][] read(DataInput in) throws IOException{
+        if(in.readInt() != MAGIC){ throw new IOException("not a compiled parse table"); }
+        int rows = in.readShort();
+        int cols = in.readShort();
+        if(rows != ROWS || cols != COLS){ throw new IOException("expected "+ROWS+"x"+COLS+" rules, found "+rows+"x"+cols); }
 
+        int[][] matrix = new int[ROWS][COLS];
         for(int row = 0; row < ROWS; row++){
             for(int col = 0; col < COLS; col++){
-                parseMatrix[row][col] = scanner.nextInt();
+                matrix[row][col] = in.readShort();
             }
         }
-        scanner.close();
+        return matrix;
     }
 
     /**
@@ -101,10 +180,15 @@ public class ParseTable {
      */
     public int getRule(int row, int col){ return parseMatrix[row][col]; }
 
+    /**
+     * getRows: the number of rows (TokenTypes at or past it have no row, e.g. ENDOFFILE).
+     */
+    public int getRows(){ return parseMatrix.length; }
+
     /**
      * getFile: getter method for the abstract file
-     * @return a copy of the abstract file, parseData
+     * @return a copy of the abstract file, parseData (null for the default table)
      */
     public File getFile(){ return parseData; }
 
-} /* end of ParseTable class */
\ No newline at end of file
+} /* end of ParseTable class */
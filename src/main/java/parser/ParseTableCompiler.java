@@ -0,0 +1,42 @@
+/*
+ * File: ParseTableCompiler.java
+ *
+ * Desc: contains the point of execution
+ *       for compiling the parse table.
+ *
+ */
+package main.java.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * ParseTableCompiler class, run by the build.
+ *
+ * Usage: java ParseTableCompiler [parse_table.dat] [parse_table.bin]
+ *
+ * Reads the parse table as written and writes it in the compact binary form
+ * the Parser loads from the classpath (see ParseTable.write).
+ */
+public class ParseTableCompiler {
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length != 2){
+            System.out.println("Usage: java ParseTableCompiler [parse_table.dat] [parse_table.bin]");
+            return;
+        }
+        ParseTable table = new ParseTable(args[0]);
+
+        File target = new File(args[1]);
+        File parent = target.getAbsoluteFile().getParentFile();
+        if(!parent.isDirectory() && !parent.mkdirs()){ throw new IOException("Cannot create "+parent); }
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)))){
+            table.write(out);
+        }
+        System.out.println("Compiled "+args[0]+" into "+args[1]+" ("+target.length()+" bytes)");
+    }
+}
@@ -6,17 +6,23 @@
  */
 package main.java.parser;
 
+import main.java.lexer.FileStream;
+import main.java.lexer.Source;
+import main.java.lexer.TokenCache;
+import main.java.lexer.TokenPipe;
 import main.java.lexer.Tokenizer;
-import main.java.grammar.GrammarSymbol;
-import main.java.lexer.errors.LexerError;
 import main.java.parser.errors.ParseError;
 import main.java.semantics.SemanticActions;
+import main.java.token.SymbolInterner;
 import main.java.token.Token;
+import main.java.token.TokenBuffer;
 import main.java.token.TokenType;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.Stack;
 
 /**
  * Parser does the parse work of the compiler analysis
@@ -27,28 +33,56 @@ public class Parser {
 
     /* Constants:
      * ERROR: the form of errors in the parse table
-     * RHS_TABLE: a RHS table (No need to mutate, so keep final)
-     * PARSE_TABLE: a ParseTable (No need to mutate, so keep final)
      */
     private final static int ERROR = 999; /* errors look like this */
-    private final RHS RHS_TABLE;
-    private final ParseTable PARSE_TABLE;
+    private final static int INITIAL_STACK = 64;
+    private final static int EOF = TokenType.ENDOFFILE.getIndex();
+
+    /* the parse table and RHS table (shared by every Parser, see Grammar) */
+    private final Grammar grammar;
 
     /* objects to work with */
     private Tokenizer tokenizer;
-    private Stack<GrammarSymbol> parStack;
     private SemanticActions semActions;
 
+    /* the parse stack: symbol codes (see RHS), the top one at parStack[stackSize - 1] */
+    private int[] parStack;
+    private int stackSize;
+
     /* current Token */
     private Token currentToken;
     private Token prevToken; // ADDED !
 
+    /*
+     * Pretokenized mode (tokens is null when streaming):
+     * - tokens: every Token of the file
+     * - index: index of the current Token
+     * - prevIndex: index of the previous Token
+     * - prevCached: index of the Token held by prevToken
+     */
+    private TokenBuffer tokens;
+    private int index;
+    private int prevIndex;
+    private int prevCached = -1;
+
     /* linked list of errors for recovery */
     private LinkedList<ParseError> errorList;
 
+    /* True from a syntax error until the next Token is matched (errors are not reported meanwhile) */
+    private boolean recovering;
+
     /* flag indicating if we're in debug mode or not (default is false) */
     private boolean debug = false;
 
+    /*
+     * Pipeline mode (default is false):
+     * - lexer: the lexer thread when streaming (null otherwise)
+     * - actionPipe: the semantic action thread while running (null otherwise)
+     */
+    private boolean pipeline = false;
+    private TokenPipe lexer;
+    private ActionPipe actionPipe;
+
     /**
      * Parser constructor
      * @param pascalFile: the path to the pascal source file
@@ -57,19 +91,59 @@ public class Parser {
      *       Returns a Parser object.
      */
     public Parser(String pascalFile) throws FileNotFoundException{
-        this.tokenizer = new Tokenizer(pascalFile);
-        this.semActions = new SemanticActions(this.tokenizer);
+        this(pascalFile, false);
+    }
 
-        /* set the current token */
-        this.currentToken = this.prevToken = tokenizer.getNextToken();
-        /* initialize the other assets */
-        this.PARSE_TABLE = new ParseTable();
-        this.RHS_TABLE = new RHS();
-        this.parStack = new Stack<>();
-        this.errorList = new LinkedList<>();
-        /* push the initial elements */
-        parStack.push(TokenType.ENDOFFILE); /* push eof */
-        parStack.push(NonTerminal.Goal);    /* push start symbol */
+    /**
+     * Parser constructor
+     * @param pascalFile: the path to the pascal source file
+     * @param pretokenize: if True, the whole file is lexed into a TokenBuffer
+     *                     before parsing, otherwise Tokens are streamed.
+     *
+     * Desc: Initializes the tokenizer and stack.
+     *       Returns a Parser object.
+     */
+    public Parser(String pascalFile, boolean pretokenize) throws FileNotFoundException{
+        this(Source.file(pascalFile, FileStream.DEFAULT_BACKEND), pretokenize);
+    }
+
+    /**
+     * Parser constructor
+     * @param source: the pascal program (a file or a program in memory)
+     *
+     * Desc: Initializes the tokenizer and stack.
+     *       Returns a Parser object.
+     */
+    public Parser(Source source) throws FileNotFoundException{
+        this(source, false);
+    }
+
+    /**
+     * Parser constructor
+     * @param source: the pascal program (a file or a program in memory)
+     * @param pretokenize: if True, the whole program is lexed into a TokenBuffer
+     *                     before parsing, otherwise Tokens are streamed.
+     *
+     * Desc: Initializes the tokenizer and stack.
+     *       Returns a Parser object.
+     */
+    public Parser(Source source, boolean pretokenize) throws FileNotFoundException{
+        this(Grammar.get());
+        start(source, pretokenize);
+    }
+
+    /**
+     * Parser constructor
+     * @param pascalFile: the path to the pascal source file
+     * @param cache: the TokenCache the file is read from (or lexed into)
+     *
+     * Desc: Pretokenizes the file through the cache and initializes the stack.
+     *       Returns a Parser object.
+     */
+    public Parser(String pascalFile, TokenCache cache) throws IOException{
+        this(Grammar.get());
+        SymbolInterner symbols = new SymbolInterner();
+        start(cache.tokenize(pascalFile, symbols), symbols);
     }
 
     /**
@@ -81,19 +155,90 @@ public class Parser {
      *       Returns a Parser object.
      */
     public Parser(String pascalFile, String parseTablePath) throws FileNotFoundException{
-        this.tokenizer = new Tokenizer(pascalFile);
-        this.semActions = new SemanticActions(this.tokenizer);
-
-        /* set the current token */
-        this.currentToken = tokenizer.getNextToken();
-        /* initialize the other assets */
-        this.PARSE_TABLE = new ParseTable(parseTablePath);
-        this.RHS_TABLE = new RHS();
-        this.parStack = new Stack<>();
+        this(Grammar.of(parseTablePath));
+        start(Source.file(pascalFile, FileStream.DEFAULT_BACKEND), false);
+    }
+
+    /**
+     * Parser constructor
+     * @param grammar: the parse tables.
+     *
+     * Desc: Allocates the stack and error list, the program is given by start.
+     */
+    private Parser(Grammar grammar){
+        this.grammar = grammar;
+        this.parStack = new int[INITIAL_STACK];
         this.errorList = new LinkedList<>();
+    }
+
+    /**
+     * reset: gets this Parser ready for another program. The stack and error
+     *        list are reused (they are cleared), the debug mode is kept.
+     * @param source: the pascal program (a file or a program in memory)
+     * Note: the program is pretokenized if the previous one was.
+     */
+    public void reset(Source source){
+        reset(source, this.tokens != null);
+    }
+
+    /**
+     * reset: gets this Parser ready for another program (see reset(Source)).
+     * @param source: the pascal program (a file or a program in memory)
+     * @param pretokenize: if True, the whole program is lexed into a TokenBuffer
+     *                     before parsing, otherwise Tokens are streamed.
+     */
+    public void reset(Source source, boolean pretokenize){
+        start(source, pretokenize);
+    }
+
+    /**
+     * start: sets up the lexer and the semantic actions for a program.
+     * @param source: the pascal program
+     * @param pretokenize: if True, the whole program is lexed first.
+     */
+    private void start(Source source, boolean pretokenize){
+        if(lexer != null){ lexer.close(); }
+        this.lexer = null;
+        this.tokenizer = new Tokenizer(source);
+
+        if(pretokenize){
+            /* lex the whole file, the current Token is the first one */
+            start(tokenizer.tokenizeAll(), tokenizer.getSymbols());
+            return;
+        }
+        this.tokens = null;
+        this.semActions = new SemanticActions(this::actionLine, tokenizer.getSymbols());
+        this.currentToken = this.prevToken = tokenizer.getNextToken();
+        if(pipeline){ this.lexer = new TokenPipe(tokenizer); }
+        clear();
+    }
+
+    /**
+     * start: sets up the semantic actions for a pretokenized program.
+     * @param tokens: every Token of the program.
+     * @param symbols: the SymbolInterner the identifiers were interned in.
+     */
+    private void start(TokenBuffer tokens, SymbolInterner symbols){
+        this.tokens = tokens;
+        this.index = 0;
+        this.prevIndex = 0;
+        this.prevCached = -1;
+        this.currentToken = this.prevToken = null;
+        this.semActions = new SemanticActions(this::actionLine, symbols);
+        clear();
+    }
+
+    /**
+     * clear: empties the stack and error list and pushes the initial elements.
+     */
+    private void clear(){
+        this.stackSize = 0;
+        this.errorList.clear();
+        this.recovering = false;
         /* push the initial elements */
-        parStack.push(TokenType.ENDOFFILE); /* push eof */
-        parStack.push(NonTerminal.Goal);    /* push start symbol */
+        parStack[stackSize++] = RHS.encode(TokenType.ENDOFFILE); /* push eof */
+        parStack[stackSize++] = RHS.encode(NonTerminal.Goal);    /* push start symbol */
+        if(debug){ semActions.debugMode(); }
     }
 
     /**
@@ -104,102 +249,202 @@ public class Parser {
         semActions.debugMode();
     }
 
+    /**
+     * pipelineMode: lexes, parses and runs the semantic actions on three threads
+     *               (see TokenPipe and ActionPipe), for large programs. The result
+     *               is the same as without it. In debug mode the semantic actions
+     *               stay on the parser thread, so that what is printed stays in order.
+     * Note: kept by reset. A pretokenized program only gets the semantic action thread.
+     */
+    public void pipelineMode(){
+        this.pipeline = true;
+        if(tokens == null && lexer == null){ this.lexer = new TokenPipe(tokenizer); }
+    }
+
     /**
      * run: routine that runs the parser. Implementation
      *      of the LL(1) Push-down parser. The pseudo-code
      *      can be found in the same directory as this file.
+     * @throws ParseError the first syntax error, once every one has been printed
+     *         (the code is then not to be written).
      */
     public void run(){
-        /* predicted grammar symbol */
-        GrammarSymbol predicted;
+        if(pipeline && !debug){ this.actionPipe = new ActionPipe(semActions); }
+        try{ parse(); }
+        finally{ finishPipeline(); }
+        /* if there were errors, print them */
+        printErrors();
+        if(!errorList.isEmpty()){ throw errorList.getFirst(); }
+    }
+
+    /**
+     * finishPipeline: stops the pipeline threads once the parse is over.
+     * Note: a failed semantic action is thrown from here, ahead of whatever
+     *       stopped the parse, since it comes first in the program.
+     */
+    private void finishPipeline(){
+        if(lexer != null){ lexer.close(); }
+        if(actionPipe != null){
+            try{ actionPipe.finish(); }
+            finally{ this.actionPipe = null; }
+        }
+    }
+
+    /**
+     * parse: the LL(1) loop, until the stack is empty.
+     */
+    private void parse(){
+        /* the productions, flattened (see RHS) */
+        int[] codes = grammar.getCodes();
 
         /* while the current token type is not an EOF */
-        while(!parStack.isEmpty()){
+        while(stackSize > 0){
             /* for each iteration, print the contents of the stack */
             if(debug){ dumpStack(); }
 
             /* set the predicted symbol to the top of the stack */
-            predicted = parStack.pop();
-            if(debug){ System.out.print("Predicted: "+predicted+ " with Token: "+currentToken.toString()+" ==> "); }
-
-            /* ::: PREDICTED: TOKEN (TERMINAL) ::: */
-            if(predicted.isToken()){
-
-                /* if it is, we try to match the move */
-                if(predicted == currentToken.getTokenType()){
-                    /* print that the mach was found */
-                    if(debug){ System.out.println("MATCH FOUND\n"); }
-                    prevToken = currentToken;
-                    currentToken = tokenizer.getNextToken(); /* match found */
-                }
-                /* otherwise, the match was bad and we record the error */
-                else {
-                    panicMode(ParseError.NoMatch(predicted, currentToken)); // TODO: should continue here?
-                }
-            }
-            /* ::: PREDICTED: NON-TERMINAL ::: */
-            else if(predicted.isNonTerminal()){
+            int predicted = parStack[--stackSize];
+            if(debug){ System.out.print("Predicted: "+RHS.decode(predicted)+ " with Token: "+current().toString()+" ==> "); }
 
-                /* get the table rule for this non-terminal */
-                NonTerminal trm = (NonTerminal) predicted;
+            switch(predicted & RHS.TAG){
+                /* ::: PREDICTED: TOKEN (TERMINAL) ::: */
+                case RHS.TERMINAL:
+                    /* if it is, we try to match the move (the code of a terminal is its index) */
+                    if(predicted == currentTypeIndex()){
+                        /* print that the mach was found */
+                        if(debug){ System.out.println("MATCH FOUND\n"); }
+                        match(); /* match found */
+                    }
+                    /* otherwise, the match was bad and we record the error */
+                    else {
+                        recover(predicted, ParseError.NoMatch(RHS.decode(predicted), current()));
+                    }
+                    break;
 
-                /* Obtain the production rule given the current token and non-terminal */
-                int tableRule = PARSE_TABLE.getRule(currentToken.getTypeIndex(), trm.getIndex());
+                /* ::: PREDICTED: NON-TERMINAL ::: */
+                case RHS.NONTERMINAL:
+                    /* Obtain the production rule given the current token and non-terminal */
+                    int tableRule = grammar.getRule(currentTypeIndex(), predicted & RHS.INDEX);
 
-                /* check if the table rule is an error */
-                if(tableRule == ERROR){ panicMode(ParseError.Unexpected(currentToken)); }
+                    /* check if the table rule is an error */
+                    if(tableRule == ERROR){ recover(predicted, ParseError.Unexpected(current())); }
 
-                /* otherwise, we're okay and we proceed */
-                else{
                     /* we only care about productions whose RHS is not the empty string (epsilon) */
-                    if(tableRule > 0){
-                        /* get the RHS symbols of the production (different directions we can take) */
-                        GrammarSymbol[] gRules = RHS_TABLE.getRules(tableRule);
-
-                        if(debug){ System.out.println("PUSHING: "+RHS_TABLE.rulesToString(tableRule)+"\n"); }
-                        /* push the symbols on the stack: make sure to do this with respect to FIFO */
-                        for(int k = gRules.length-1; k > -1; k--){ parStack.push(gRules[k]); }
+                    else if(tableRule > 0){
+                        if(debug){ System.out.println("PUSHING: "+grammar.rulesToString(tableRule)+"\n"); }
+                        /* push the symbols on the stack: they are stored reversed, so the first one ends up on top */
+                        int length = grammar.getLength(tableRule);
+                        if(stackSize + length > parStack.length){ parStack = Arrays.copyOf(parStack, Math.max(2 * parStack.length, stackSize + length)); }
+                        System.arraycopy(codes, grammar.getStart(tableRule), parStack, stackSize, length);
+                        stackSize += length;
                     }
                     /* otherwise was an empty string and we're done with the current production. Pop next predicted */
                     else{ if(debug){ System.out.println("EPSILON\n"); } }
-                }
-            }
-            /* ::: PREDICTED: SEMANTIC-ACTION ::: */
-            else if(predicted.isSemAction()){
-                SemanticAction act = (SemanticAction) predicted;
-                if(debug){ System.out.println("SEMANTIC ACTION: "+act.getIndex()+""); }
-                semActions.execute(act.getIndex(), prevToken);
+                    break;
+
+                /* ::: PREDICTED: SEMANTIC-ACTION ::: */
+                /* once there is a syntax error the program is only checked, no code is generated */
+                default:
+                    if(debug){ System.out.println("SEMANTIC ACTION: "+(predicted & RHS.INDEX)+""); }
+                    if(!errorList.isEmpty()){ break; }
+                    if(actionPipe == null){ semActions.execute(predicted & RHS.INDEX, previous()); }
+                    else{ actionPipe.put(predicted & RHS.INDEX, previous(), currentLine()); }
+                    break;
             }
         }
-        /* if there were errors, print them */
-        printErrors();
-        /* TODO: errors are not thrown ^ need to make things thrown at the end */
     }
 
     /**
-     * panic: the panic mode routine discussed in the assignment instructions.
-     * @param error: a ParseError
+     * recover: panic mode recovery on the FOLLOW sets of the grammar, so that a
+     *          single pass reports every independent syntax error.
+     * Note: an unmatched terminal is popped (as if it had been inserted). For a
+     *       NonTerminal, Tokens are skipped until one it can start with (it is
+     *       predicted again) or one that may follow it (it is popped). Either
+     *       way a Token is consumed or the stack shrinks, so parsing stays linear.
+     *       Errors found before the next match are caused by the recovery
+     *       itself and are not reported. At ENDOFFILE parsing stops.
+     * @param predicted: the code of the symbol that was popped (see RHS).
+     * @param error: the ParseError to report.
      */
-    private void panicMode(ParseError error) throws LexerError, ParseError {
-        /* add this error to the list */
-        this.errorList.add(error);
+    private void recover(int predicted, ParseError error){
+        if(!recovering){ this.errorList.add(error); }
+        recovering = true;
+        if(debug){ System.out.println("ERROR: "+error.getMessage()+"\n"); }
 
-        /* skip until you find the next semicolon */
-        while (currentToken.getTokenType() != TokenType.SEMICOLON && !currentToken.isEOF()) {
-            currentToken = tokenizer.getNextToken();
+        if((predicted & RHS.TAG) == RHS.NONTERMINAL){
+            int nonTerminal = predicted & RHS.INDEX;
+            for(int type = currentTypeIndex(); type != EOF; type = currentTypeIndex()){
+                if(grammar.getRule(type, nonTerminal) != ERROR){
+                    parStack[stackSize++] = predicted;
+                    return;
+                }
+                if(grammar.synchronizes(type, nonTerminal)){ return; }
+                advance();
+            }
         }
+        if(currentTypeIndex() == EOF){ stackSize = 0; }
+    }
 
-        /* if EOF, error cannot be recovered from */
-        if (currentToken.isEOF()) {
-            throw error;
-        }
+    /**
+     * currentTypeIndex: the grammar index of the current Token.
+     */
+    private int currentTypeIndex(){
+        return (tokens == null) ? currentToken.getTypeIndex() : tokens.getTypeIndex(index);
+    }
 
-        /* if semicolon, pop the stack until you find the non-terminal <statement_list_tail> */
-        while (!parStack.isEmpty() && parStack.pop() != NonTerminal.statement_list_tail) {
-            if (parStack.isEmpty()) {
-                throw error;
-            }
+    /**
+     * currentLine: the line of the current Token.
+     */
+    private int currentLine(){
+        return (tokens == null) ? currentToken.getLineNum() : tokens.getLine(index);
+    }
+
+    /**
+     * actionLine: the line of the current Token as seen by the semantic actions.
+     * Note: with an action thread, the line when the running action was put (see ActionPipe).
+     */
+    private int actionLine(){
+        ActionPipe actions = actionPipe;
+        return (actions != null) ? actions.getLine() : currentLine();
+    }
+
+    /**
+     * current: the current Token.
+     * Note: creates a Token object in pretokenized mode (only for errors and debugging).
+     */
+    private Token current(){
+        return (tokens == null) ? currentToken : tokens.get(index);
+    }
+
+    /**
+     * previous: the previous Token (the last one matched).
+     * Note: in pretokenized mode the Token object is created once per index.
+     */
+    private Token previous(){
+        if(tokens != null && prevCached != prevIndex){
+            prevToken = tokens.get(prevIndex);
+            prevCached = prevIndex;
         }
+        return prevToken;
+    }
+
+    /**
+     * match: the current Token becomes the previous Token and we advance.
+     */
+    private void match(){
+        if(tokens == null){ prevToken = currentToken; }
+        else{ prevIndex = index; }
+        recovering = false;
+        advance();
+    }
+
+    /**
+     * advance: moves on to the next Token.
+     * Note: like the Tokenizer, the buffer keeps returning EOF at the end.
+     */
+    private void advance(){
+        if(tokens == null){ currentToken = (lexer == null) ? tokenizer.getNextToken() : lexer.next(); }
+        else if(index < tokens.size() - 1){ index++; }
     }
 
     /**
@@ -223,17 +468,14 @@ public class Parser {
      * dumpStack: routine that prints the contents of the stack.
      */
     private void dumpStack(){
-        if(!parStack.isEmpty()) {
+        if(stackSize > 0) {
             System.out.println("Parse Stack: ");
-            /* make a copy of the stack */
-            Stack<GrammarSymbol> stackCopy = new Stack<>();
-            stackCopy.addAll(parStack);
 
             /* print the first element on the stack */
-            System.out.print("[ " + stackCopy.pop());
-            while (!stackCopy.isEmpty()) {
+            System.out.print("[ " + RHS.decode(parStack[stackSize - 1]));
+            for (int k = stackSize - 2; k >= 0; k--) {
                 /* print the remaining elements */
-                System.out.print(", "+stackCopy.pop());
+                System.out.print(", "+RHS.decode(parStack[k]));
             }
             /* finish off by closing out the stack brackets */
             System.out.println(" ]");
@@ -249,4 +491,11 @@ public class Parser {
         this.semActions.writeToFile(filename);
     }
 
+    /**
+     * write code to a sink (e.g. a StringWriter), the sink is flushed but not closed
+     */
+    public void writeTo(Writer out) {
+        this.semActions.writeTo(out);
+    }
+
 } /* end of Parser class */
\ No newline at end of file
@@ -0,0 +1,269 @@
+/*
+ * File: Productions.java
+ *
+ * Desc: the productions of the grammar.
+ *       Generated by GrammarCompiler from grammar.txt, do not edit.
+ *
+ */
+package main.java.parser;
+
+import main.java.grammar.GrammarSymbol;
+import main.java.token.TokenType;
+
+/**
+ * Productions class: the left and right hand side of every production,
+ * by production number (see RHS).
+ */
+final class Productions {
+
+    private Productions() { }
+
+    /**
+     * lhs: the NonTerminal of each production (the first one is unused).
+     */
+    static NonTerminal[] lhs() {
+        return new NonTerminal[] {
+                null, /* dummy element */
+                NonTerminal.program, /* production 1 */
+                NonTerminal.identifier_list, /* production 2 */
+                NonTerminal.identifier_list_tail, /* production 3 */
+                NonTerminal.identifier_list_tail, /* production 4 */
+                NonTerminal.declarations, /* production 5 */
+                NonTerminal.declarations, /* production 6 */
+                NonTerminal.declaration_list, /* production 7 */
+                NonTerminal.declaration_list_tail, /* production 8 */
+                NonTerminal.declaration_list_tail, /* production 9 */
+                NonTerminal.type, /* production 10 */
+                NonTerminal.type, /* production 11 */
+                NonTerminal.standard_type, /* production 12 */
+                NonTerminal.standard_type, /* production 13 */
+                NonTerminal.array_type, /* production 14 */
+                NonTerminal.sub_declarations, /* production 15 */
+                NonTerminal.sub_declarations, /* production 16 */
+                NonTerminal.subprogram_declaration, /* production 17 */
+                NonTerminal.subprogram_head, /* production 18 */
+                NonTerminal.subprogram_head, /* production 19 */
+                NonTerminal.arguments, /* production 20 */
+                NonTerminal.arguments, /* production 21 */
+                NonTerminal.parameter_list, /* production 22 */
+                NonTerminal.parameter_list_tail, /* production 23 */
+                NonTerminal.parameter_list_tail, /* production 24 */
+                NonTerminal.compound_statement, /* production 25 */
+                NonTerminal.statement_list, /* production 26 */
+                NonTerminal.statement_list_tail, /* production 27 */
+                NonTerminal.statement_list_tail, /* production 28 */
+                NonTerminal.statement, /* production 29 */
+                NonTerminal.statement, /* production 30 */
+                NonTerminal.statement, /* production 31 */
+                NonTerminal.else_clause, /* production 32 */
+                NonTerminal.else_clause, /* production 33 */
+                NonTerminal.elementary_statement, /* production 34 */
+                NonTerminal.elementary_statement, /* production 35 */
+                NonTerminal.es_tail, /* production 36 */
+                NonTerminal.es_tail, /* production 37 */
+                NonTerminal.subscript, /* production 38 */
+                NonTerminal.subscript, /* production 39 */
+                NonTerminal.parameters, /* production 40 */
+                NonTerminal.parameters, /* production 41 */
+                NonTerminal.expression_list, /* production 42 */
+                NonTerminal.expression_list_tail, /* production 43 */
+                NonTerminal.expression_list_tail, /* production 44 */
+                NonTerminal.expression, /* production 45 */
+                NonTerminal.expression_tail, /* production 46 */
+                NonTerminal.expression_tail, /* production 47 */
+                NonTerminal.simple_expression, /* production 48 */
+                NonTerminal.simple_expression, /* production 49 */
+                NonTerminal.simple_expression_tail, /* production 50 */
+                NonTerminal.simple_expression_tail, /* production 51 */
+                NonTerminal.term, /* production 52 */
+                NonTerminal.term_tail, /* production 53 */
+                NonTerminal.term_tail, /* production 54 */
+                NonTerminal.factor, /* production 55 */
+                NonTerminal.factor, /* production 56 */
+                NonTerminal.factor, /* production 57 */
+                NonTerminal.factor, /* production 58 */
+                NonTerminal.factor_tail, /* production 59 */
+                NonTerminal.factor_tail, /* production 60 */
+                NonTerminal.actual_parameters, /* production 61 */
+                NonTerminal.actual_parameters, /* production 62 */
+                NonTerminal.sign, /* production 63 */
+                NonTerminal.sign, /* production 64 */
+                NonTerminal.Goal, /* production 65 */
+                NonTerminal.constant, /* production 66 */
+                NonTerminal.constant /* production 67 */
+        };
+    }
+
+    /**
+     * rhs: the symbols of each production (the first one is unused).
+     */
+    static GrammarSymbol[][] rhs() {
+        return new GrammarSymbol[][] {
+
+/* dummy element */
+                {},
+/* production 1 */
+                { TokenType.PROGRAM, TokenType.IDENTIFIER, SemanticAction.action13, TokenType.LEFTPAREN,
+                        NonTerminal.identifier_list, TokenType.RIGHTPAREN, SemanticAction.action9,
+                        TokenType.SEMICOLON, NonTerminal.declarations, NonTerminal.sub_declarations,
+                        SemanticAction.action56, NonTerminal.compound_statement, SemanticAction.action55 },
+/* production 2 */
+                { TokenType.IDENTIFIER, SemanticAction.action13, NonTerminal.identifier_list_tail },
+/* production 3 */
+                { TokenType.COMMA, TokenType.IDENTIFIER, SemanticAction.action13,
+                        NonTerminal.identifier_list_tail },
+/* production 4 */
+                { },
+/* production 5 */
+                { TokenType.VAR, SemanticAction.action1, NonTerminal.declaration_list, SemanticAction.action2 },
+/* production 6 */
+                { },
+/* production 7 */
+                { NonTerminal.identifier_list, TokenType.COLON, NonTerminal.type, SemanticAction.action3,
+                        TokenType.SEMICOLON, NonTerminal.declaration_list_tail },
+/* production 8 */
+                { NonTerminal.identifier_list, TokenType.COLON, NonTerminal.type, SemanticAction.action3,
+                        TokenType.SEMICOLON, NonTerminal.declaration_list_tail },
+/* production 9 */
+                { },
+/* production 10 */
+                { NonTerminal.standard_type },
+/* production 11 */
+                { NonTerminal.array_type },
+/* production 12 */
+                { TokenType.INTEGER, SemanticAction.action4 },
+/* production 13 */
+                { TokenType.REAL, SemanticAction.action4 },
+/* production 14 */
+                { SemanticAction.action6, TokenType.ARRAY, TokenType.LEFTBRACKET, TokenType.INTCONSTANT,
+                        SemanticAction.action7, TokenType.DOUBLEDOT, TokenType.INTCONSTANT,
+                        SemanticAction.action7, TokenType.RIGHTBRACKET, TokenType.OF,
+                        NonTerminal.standard_type },
+/* production 15 */
+                { NonTerminal.subprogram_declaration, NonTerminal.sub_declarations },
+/* production 16 */
+                { },
+/* production 17 */
+                { SemanticAction.action1, NonTerminal.subprogram_head, NonTerminal.declarations,
+                        SemanticAction.action5, NonTerminal.compound_statement, SemanticAction.action11 },
+/* production 18 */
+                { TokenType.FUNCTION, TokenType.IDENTIFIER, SemanticAction.action15, NonTerminal.arguments,
+                        TokenType.COLON, TokenType.RESULT, NonTerminal.standard_type, TokenType.SEMICOLON,
+                        SemanticAction.action16 },
+/* production 19 */
+                { TokenType.PROCEDURE, TokenType.IDENTIFIER, SemanticAction.action17, NonTerminal.arguments,
+                        TokenType.SEMICOLON },
+/* production 20 */
+                { TokenType.LEFTPAREN, SemanticAction.action19, NonTerminal.parameter_list,
+                        TokenType.RIGHTPAREN, SemanticAction.action20 },
+/* production 21 */
+                { },
+/* production 22 */
+                { NonTerminal.identifier_list, TokenType.COLON, NonTerminal.type, SemanticAction.action21,
+                        NonTerminal.parameter_list_tail },
+/* production 23 */
+                { TokenType.SEMICOLON, NonTerminal.identifier_list, TokenType.COLON, NonTerminal.type,
+                        SemanticAction.action21, NonTerminal.parameter_list_tail },
+/* production 24 */
+                { },
+/* production 25 */
+                { TokenType.BEGIN, NonTerminal.statement_list, TokenType.END },
+/* production 26 */
+                { NonTerminal.statement, NonTerminal.statement_list_tail },
+/* production 27 */
+                { TokenType.SEMICOLON, NonTerminal.statement, NonTerminal.statement_list_tail },
+/* production 28 */
+                { },
+/* production 29 */
+                { NonTerminal.elementary_statement },
+/* production 30 */
+                { TokenType.IF, NonTerminal.expression, SemanticAction.action22, TokenType.THEN,
+                        NonTerminal.statement, NonTerminal.else_clause },
+/* production 31 */
+                { TokenType.WHILE, SemanticAction.action24, NonTerminal.expression, SemanticAction.action25,
+                        TokenType.DO, NonTerminal.statement, SemanticAction.action26 },
+/* production 32 */
+                { TokenType.ELSE, SemanticAction.action27, NonTerminal.statement, SemanticAction.action28 },
+/* production 33 */
+                { SemanticAction.action29 },
+/* production 34 */
+                { TokenType.IDENTIFIER, SemanticAction.action30, NonTerminal.es_tail },
+/* production 35 */
+                { NonTerminal.compound_statement },
+/* production 36 */
+                { SemanticAction.action53, NonTerminal.subscript, TokenType.ASSIGNOP, NonTerminal.expression,
+                        SemanticAction.action31 },
+/* production 37 */
+                { SemanticAction.action54, NonTerminal.parameters },
+/* production 38 */
+                { SemanticAction.action32, TokenType.LEFTBRACKET, NonTerminal.expression,
+                        TokenType.RIGHTBRACKET, SemanticAction.action33 },
+/* production 39 */
+                { SemanticAction.action34 },
+/* production 40 */
+                { SemanticAction.action35, TokenType.LEFTPAREN, NonTerminal.expression_list,
+                        TokenType.RIGHTPAREN, SemanticAction.action51 },
+/* production 41 */
+                { SemanticAction.action36 },
+/* production 42 */
+                { NonTerminal.expression, SemanticAction.action37, NonTerminal.expression_list_tail },
+/* production 43 */
+                { TokenType.COMMA, NonTerminal.expression, SemanticAction.action37,
+                        NonTerminal.expression_list_tail },
+/* production 44 */
+                { },
+/* production 45 */
+                { NonTerminal.simple_expression, NonTerminal.expression_tail },
+/* production 46 */
+                { TokenType.RELOP, SemanticAction.action38, NonTerminal.simple_expression,
+                        SemanticAction.action39 },
+/* production 47 */
+                { },
+/* production 48 */
+                { NonTerminal.term, NonTerminal.simple_expression_tail },
+/* production 49 */
+                { NonTerminal.sign, SemanticAction.action40, NonTerminal.term, SemanticAction.action41,
+                        NonTerminal.simple_expression_tail },
+/* production 50 */
+                { TokenType.ADDOP, SemanticAction.action42, NonTerminal.term, SemanticAction.action43,
+                        NonTerminal.simple_expression_tail },
+/* production 51 */
+                { },
+/* production 52 */
+                { NonTerminal.factor, NonTerminal.term_tail },
+/* production 53 */
+                { TokenType.MULOP, SemanticAction.action44, NonTerminal.factor, SemanticAction.action45,
+                        NonTerminal.term_tail },
+/* production 54 */
+                { },
+/* production 55 */
+                { TokenType.IDENTIFIER, SemanticAction.action46, NonTerminal.factor_tail },
+/* production 56 */
+                { NonTerminal.constant, SemanticAction.action46 },
+/* production 57 */
+                { TokenType.LEFTPAREN, NonTerminal.expression, TokenType.RIGHTPAREN },
+/* production 58 */
+                { TokenType.NOT, NonTerminal.factor, SemanticAction.action47 },
+/* production 59 */
+                { NonTerminal.actual_parameters },
+/* production 60 */
+                { NonTerminal.subscript, SemanticAction.action48 },
+/* production 61 */
+                { SemanticAction.action49, TokenType.LEFTPAREN, NonTerminal.expression_list,
+                        TokenType.RIGHTPAREN, SemanticAction.action50 },
+/* production 62 */
+                { SemanticAction.action52 },
+/* production 63 */
+                { TokenType.UNARYPLUS },
+/* production 64 */
+                { TokenType.UNARYMINUS },
+/* production 65 */
+                { NonTerminal.program, TokenType.ENDMARKER },
+/* production 66 */
+                { TokenType.INTCONSTANT },
+/* production 67 */
+                { TokenType.REALCONSTANT }
+        };
+    }
+
+} /* end of Productions class */
@@ -2,6 +2,7 @@
  * File: SemanticAction
  *
  * Desc: Semantic action types.
+ *       Generated by GrammarCompiler from grammar.txt, do not edit.
  *
  */
 package main.java.parser;
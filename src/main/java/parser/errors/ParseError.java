@@ -5,7 +5,9 @@
  *
  */
 package main.java.parser.errors;
+import main.java.errors.Location;
 import main.java.grammar.GrammarSymbol;
+import main.java.token.Position;
 import main.java.token.Token;
 
 /**
@@ -14,11 +16,25 @@ import main.java.token.Token;
  */
 public class ParseError extends Error{
 
+    /*
+     * Location of the error: the position of the offending Token
+     * (line and column packed, see Position).
+     */
+    private final long position;
+
     /**
      * ParseError constructor
-     * @param msg: error message
+     * @param msg: error message (without the location)
+     * @param tok: the offending Token
      */
-    private ParseError(String msg){ super(msg); }
+    private ParseError(String msg, Token tok){
+        super(Location.describe(msg, tok.getLineNum(), tok.getColumn()));
+        this.position = tok.getPosition();
+    }
+
+    public int getLineNum(){ return Position.line(this.position); }
+
+    public int getColumn(){ return Position.column(this.position); }
 
     /**
      * NoMatch: parse error when there is no match between two GrammarSymbols.
@@ -27,7 +43,7 @@ public class ParseError extends Error{
      * @return a ParseError
      */
     public static ParseError NoMatch(GrammarSymbol gm, Token tok){
-        return new ParseError(gm+" Does not match: "+tok.getTokenType()+". On line: "+tok.getLineNum());
+        return new ParseError(gm+" Does not match: "+tok.getTokenType()+".", tok);
     }
 
 
@@ -37,7 +53,7 @@ public class ParseError extends Error{
      * @return a ParseError
      */
     public static ParseError Unexpected(Token tok){
-        return new ParseError("Unexpected Token: "+tok.toString()+". On line: "+tok.getLineNum());
+        return new ParseError("Unexpected Token: "+tok.toString()+".", tok);
     }
 
 }
\ No newline at end of file
@@ -123,31 +123,7 @@ public class Quadruples {
     public void writeQ(String fileName, String encoding) throws FileNotFoundException, UnsupportedEncodingException{
         /* PrintWriter allows for writing of formatted text to a file */
         PrintWriter writer = new PrintWriter(fileName + ".tvi", encoding);
-
-        /* starting line number */
-        int lineNumber = 1;
-        /* separator for TVI code */
-        String separator;
-
-        /* save the header */
-        writer.println("CODE");
-
-        Enumeration<String[]> en = this.quadruples.elements();
-        en.nextElement();
-
-        while(en.hasMoreElements()){
-            String[] quad = en.nextElement();
-            separator = " ";
-            writer.print(lineNumber + ": " + quad[0]);
-            if(quad[1] != null){ writer.print(separator + quad[1]); }
-            if(quad[2] != null){
-                separator = ", ";
-                writer.print(separator + quad[2]);
-            }
-            if(quad[3] != null){ writer.print(separator + quad[3]); }
-            writer.println();
-            lineNumber ++;
-        }
+        writeQ(writer);
         writer.close();
     }
 
@@ -158,15 +134,20 @@ public class Quadruples {
      * @throws UnsupportedEncodingException: in case the encoding is not supported.
      */
     public void writeQ(String fileName) throws FileNotFoundException, UnsupportedEncodingException{
-        /* PrintWriter allows for writing of formatted text to a file */
-        PrintWriter writer = new PrintWriter(fileName + ".tvi", "UTF-8");
+        writeQ(fileName, "UTF-8");
+    }
 
+    /**
+     * writeQ: write the quadruples as TVI code
+     * @param writer: where to write the code (flushed, not closed).
+     */
+    public void writeQ(PrintWriter writer){
         /* starting line number */
         int lineNumber = 1;
         /* separator for TVI code */
         String separator;
 
-        /* save the header (comment with ; ) */
+        /* save the header */
         writer.println("CODE");
 
         Enumeration<String[]> en = this.quadruples.elements();
@@ -185,7 +166,7 @@ public class Quadruples {
             writer.println();
             lineNumber ++;
         }
-        writer.close();
+        writer.flush();
     }
 
 } /* end of Quadruples class */
@@ -10,12 +10,16 @@ import main.java.lexer.Tokenizer;
 import main.java.semantics.errors.SemanticError;
 import main.java.table.*;
 import main.java.table.errors.SymbolTableError;
+import main.java.token.SymbolInterner;
 import main.java.token.Token;
 import main.java.token.TokenType;
 
 import java.io.FileNotFoundException;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.*;
+import java.util.function.IntSupplier;
 
 /**
  * SemanticActions
@@ -86,10 +90,11 @@ public class SemanticActions {
      * - semanticsStack: stack for controlling semantic action routines.
      * - actions: the list of all actions.
      * - quads: Quadruples scratch pad for the TVI code
+     * - lineNum: the line number of the current Token (used for errors)
      */
     private Stack<Object> semanticsStack;
     private Action[] actions;
-    private Tokenizer lexer;
+    private IntSupplier lineNum;
 
 
     /*
@@ -105,10 +110,19 @@ public class SemanticActions {
      * @param lexer: control of the lexer is passed to the semantic actions.
      */
     public SemanticActions(Tokenizer lexer){
+        this(lexer::getLineNum, lexer.getSymbols());
+    }
+
+    /**
+     * SemanticAction constructor
+     * @param lineNum: supplies the line number of the current Token.
+     * @param symbols: the SymbolInterner the lexer interned identifiers in.
+     */
+    public SemanticActions(IntSupplier lineNum, SymbolInterner symbols){
         semanticsStack = new Stack<>();
-        localTable = new SymbolTable(INITIAL_SIZE);
-        globalTable = new SymbolTable(INITIAL_SIZE);
-        constTable = new SymbolTable(INITIAL_SIZE);
+        localTable = new SymbolTable(INITIAL_SIZE, symbols);
+        globalTable = new SymbolTable(INITIAL_SIZE, symbols);
+        constTable = new SymbolTable(INITIAL_SIZE, symbols);
 
         /* set the flags */
         this.insert = true; // = INSERT
@@ -124,8 +138,8 @@ public class SemanticActions {
         globalStore = 0;
         localStore = 0;
 
-        /* pass control of the lexer */
-        this.lexer = lexer;
+        /* where to find the current line number */
+        this.lineNum = lineNum;
 
         /* number of temp variables is zero */
         this.tempCount = 0;
@@ -275,6 +289,13 @@ public class SemanticActions {
             if(debug){ semanticStackDump(); }
         }
         catch (ArrayIndexOutOfBoundsException ex){ throw SemanticError.ActionDoesNotExist(actionID); }
+        /* locate the error at the Token the action was run with, unless it names another line */
+        catch (SemanticError error){
+            if(token != null && error.getColumn() == 0 && (error.getLineNum() == 0 || error.getLineNum() == token.getLineNum())){
+                error.at(token.getPosition());
+            }
+            throw error;
+        }
     }
 
 
@@ -360,7 +381,7 @@ public class SemanticActions {
      */
     private void action_7(Token token){
         /* push constant (real or int constant) */
-        ConstantEntry constant = new ConstantEntry(token.getValue(), token.getTokenType());
+        ConstantEntry constant = newConstant(token, token.getTokenType(), false);
         semanticsStack.push(constant);
     }
 
@@ -1354,14 +1375,14 @@ public class SemanticActions {
      * @param y: a ConstantEntry
      */
     private int intDistance(ConstantEntry x, ConstantEntry y){
-        return (Integer.parseInt(x.getName()) - Integer.parseInt(y.getName()));
+        return (int) (x.getIntValue() - y.getIntValue());
     }
 
     /**
      * intValue: get the integer value of a constants
      * @param x: a ConstantEntry
      */
-    private int intValue(ConstantEntry x){ return Integer.parseInt(x.getName()); }
+    private int intValue(ConstantEntry x){ return (int) x.getIntValue(); }
 
     /**
      * storeArray: store the array in memory.
@@ -1500,8 +1521,8 @@ public class SemanticActions {
      * @return a corresponding SymbolTableEntry or null (if doesn't exist).
      */
     private SymbolTableEntry lookupEntry(boolean globalEntry, String name) {
-        if (globalEntry) { return globalTable.lookup(name.toLowerCase()); }
-        return localTable.lookup(name.toLowerCase());
+        if (globalEntry) { return globalTable.lookup(name); }
+        return localTable.lookup(name);
     }
 
     /**
@@ -1510,9 +1531,21 @@ public class SemanticActions {
      * @return a corresponding SymbolTableEntry or null (if doesn't exist).
      */
     private SymbolTableEntry lookupEntry(String name){
-        if(global){ return globalTable.lookup(name.toLowerCase()); }
-        SymbolTableEntry entry = localTable.lookup(name.toLowerCase());
-        if(entry == null){ return globalTable.lookup(name.toLowerCase()); }
+        if(global){ return globalTable.lookup(name); }
+        SymbolTableEntry entry = localTable.lookup(name);
+        if(entry == null){ return globalTable.lookup(name); }
+        else{ return entry; }
+    }
+
+    /**
+     * lookupEntry: lookup wrapper for specified symbol tables.
+     * @param symbol: the symbol id of the entry name.
+     * @return a corresponding SymbolTableEntry or null (if doesn't exist).
+     */
+    private SymbolTableEntry lookupEntry(int symbol){
+        if(global){ return globalTable.lookup(symbol); }
+        SymbolTableEntry entry = localTable.lookup(symbol);
+        if(entry == null){ return globalTable.lookup(symbol); }
         else{ return entry; }
     }
 
@@ -1558,7 +1591,8 @@ public class SemanticActions {
      * findAndPushID: used in semantic action 45
      */
     private void findAndPushID(Token token){
-        SymbolTableEntry id = lookupEntry(token.getValue());
+        /* identifiers from the lexer are already interned */
+        SymbolTableEntry id = (token.getSymbol() >= 0) ? lookupEntry(token.getSymbol()) : lookupEntry(token.getValue());
         /* Throw error if id is not in Symbol Table */
         if(id == null){ throw SemanticError.UndeclaredVariable(token.getValue(), token.getLineNum()); }
         semanticsStack.push(id);
@@ -1577,20 +1611,33 @@ public class SemanticActions {
      */
     private void findAndPushConst(Token token){
         /* look up the constant in the constant Symbol Table */
-        ConstantEntry constnt = (ConstantEntry) constTable.lookup(token.getValue().toLowerCase());
+        ConstantEntry constnt = (ConstantEntry) constTable.lookup(token.getValue());
 
         /* if constant not found, create it and insert it */
         if(constnt == null){
             if(token.getTokenType() == TokenType.INTCONSTANT){
-                constnt = new ConstantEntry(token.getValue(), TokenType.INTEGER, global);
+                constnt = newConstant(token, TokenType.INTEGER, global);
             }
-            else{ constnt = new ConstantEntry(token.getValue(), TokenType.REAL, global); }
+            else{ constnt = newConstant(token, TokenType.REAL, global); }
             insertToConst(constnt);
         }
         /* push the constant */
         semanticsStack.push(constnt);
     }
 
+    /**
+     * newConstant: creates the entry of a constant Token, with the value decoded by the lexer.
+     * @param token: an INTCONSTANT or REALCONSTANT Token.
+     * @param type: the Token Type of the entry.
+     * @param isParam: boolean indicating if parameter.
+     */
+    private ConstantEntry newConstant(Token token, TokenType type, boolean isParam){
+        if(token.getTokenType() == TokenType.INTCONSTANT){
+            return new ConstantEntry(token.getValue(), type, isParam, token.getIntValue());
+        }
+        return new ConstantEntry(token.getValue(), type, isParam, token.getRealValue());
+    }
+
     /**
      * for action 37
      */
@@ -1868,14 +1915,15 @@ public class SemanticActions {
             if(op.isParameter()){ pointerOps = "^"; }
         }
         /* get absolute mem-location or from stack frame */
+        int symbol = this.globalTable.symbolOf(op);
         if(global){
-            if(this.globalTable.lookup(op.getName()) != null){ memloc = "_"; }
+            if(this.globalTable.lookup(symbol) != null){ memloc = "_"; }
         }
         /* otherwise, is on the stack frame */
         else{
-            if(this.localTable.lookup(op.getName()) != null){ memloc = "%"; }
+            if(this.localTable.lookup(symbol) != null){ memloc = "%"; }
             /* safety check */
-            else if(this.globalTable.lookup(op.getName()) != null){ memloc = "_"; }
+            else if(this.globalTable.lookup(symbol) != null){ memloc = "_"; }
         }
         return pointerOps + memloc;
     }
@@ -1943,7 +1991,7 @@ public class SemanticActions {
         if(id1.getType() == TokenType.REAL && id2.getType() == TokenType.REAL){ return 1; }
         if(id1.getType() == TokenType.REAL && id2.getType() == TokenType.INTEGER){ return 2; }
         if(id1.getType() == TokenType.INTEGER && id2.getType() == TokenType.REAL){ return 3; }
-        else{ throw SemanticError.UnrecognizedTypes(id1.getType(), id2.getType(), lexer.getLineNum()); }
+        else{ throw SemanticError.UnrecognizedTypes(id1.getType(), id2.getType(), lineNum.getAsInt()); }
     }
 
     /* -------------- END OF GENERATION HELPERS ----------------- */
@@ -2092,4 +2140,12 @@ public class SemanticActions {
         this.quads.writeQ(filename);
     }
 
+    /**
+     * writeTo: writes the TVI code to a sink.
+     * @param out: the sink (flushed, not closed).
+     */
+    public void writeTo(Writer out) {
+        this.quads.writeQ(new PrintWriter(out));
+    }
+
 } /* end of SemanticActions class */
\ No newline at end of file
@@ -6,6 +6,8 @@
  */
 package main.java.semantics.errors;
 
+import main.java.errors.Location;
+import main.java.token.Position;
 import main.java.token.TokenType;
 
 /**
@@ -14,18 +16,56 @@ import main.java.token.TokenType;
  */
 public class SemanticError extends Error {
 
+    /*
+     * Location of the error (0 if unknown):
+     * - lineNum: the line given to the factory, or the line of the Token the failing action was run with
+     * - column: the column of that Token (1 based)
+     */
+    private int lineNum;
+    private int column;
+
     /**
      * SemanticError constructor
-     * @param msg: error message
+     * @param msg: error message (without the location)
      */
     private SemanticError(String msg){ super(msg); }
 
+    /**
+     * SemanticError constructor
+     * @param msg: error message (without the location)
+     * @param lineNum: the line of the error, until at sets the exact location.
+     */
+    private SemanticError(String msg, int lineNum){
+        super(msg);
+        this.lineNum = lineNum;
+    }
+    /**
+     * at: sets the location of the error.
+     * @param position: the packed Position of the Token in question.
+     * @return this error.
+     */
+    public SemanticError at(long position){
+        this.lineNum = Position.line(position);
+        this.column = Position.column(position);
+        return this;
+    }
+
+    public int getLineNum(){ return this.lineNum; }
+
+    public int getColumn(){ return this.column; }
+
+    /**
+     * getMessage: the error message, followed by its location once set (see Location).
+     */
+    @Override
+    public String getMessage(){ return Location.describe(super.getMessage(), this.lineNum, this.column); }
+
     public static SemanticError ReservedName(String name, int lineNumber){
-        return new SemanticError("Attempted to use a reserved name: "+name+ " on line: "+lineNumber+". Not allowed to use reserved names.");
+        return new SemanticError("Attempted to use a reserved name: "+name+". Not allowed to use reserved names.", lineNumber);
     }
 
     public static SemanticError NameAlreadyDeclared(String name, int lineNumber){
-        return new SemanticError("The name: "+name+" on line: "+lineNumber+" has already been declared.");
+        return new SemanticError("The name: "+name+" has already been declared.", lineNumber);
     }
 
     public static SemanticError ReservedName(String name){
@@ -41,7 +81,7 @@ public class SemanticError extends Error {
     }
 
     public static SemanticError UnrecognizedTypes(TokenType tt1, TokenType tt2, int lineNum){
-        return new SemanticError("The combination of Type: "+tt1+" and Type: "+tt2+" is unrecognized on line: "+lineNum+".");
+        return new SemanticError("The combination of Type: "+tt1+" and Type: "+tt2+" is unrecognized.", lineNum);
     }
 
     public static SemanticError InputOutputNotSpecified(){
@@ -49,43 +89,43 @@ public class SemanticError extends Error {
     }
 
     public static SemanticError UndeclaredVariable(String name, int lineNumber){
-        return new SemanticError("Undeclared variable: "+name+" on line: "+lineNumber);
+        return new SemanticError("Undeclared variable: "+name+".", lineNumber);
     }
 
     public static SemanticError UnmatchedTypes(String name1, String name2, int linNumber){
-        return new SemanticError("The types of: "+name1+" and of: "+name2+" don't match on line: "+linNumber+".");
+        return new SemanticError("The types of: "+name1+" and of: "+name2+" don't match.", linNumber);
     }
 
     public static SemanticError BadMod(int lineNumber){
-        return new SemanticError("Bad MOD setup on line: "+lineNumber+" operands of the MOD operator must both be of type: Integer.");
+        return new SemanticError("Bad MOD setup: operands of the MOD operator must both be of type: Integer.", lineNumber);
     }
 
     public static SemanticError BadDiv(int lineNumber){
-        return new SemanticError("Bad DIV setup on line: "+lineNumber+" operands of the DIV operator must both be of type: Integer.");
+        return new SemanticError("Bad DIV setup: operands of the DIV operator must both be of type: Integer.", lineNumber);
     }
 
     public static SemanticError BadFunction(String name, int lineNumber){
-        return new SemanticError("Bad function: "+name+" on line: "+lineNumber+".");
+        return new SemanticError("Bad function: "+name+".", lineNumber);
     }
 
     public static SemanticError BadProcedure(String name, int lineNumber){
-        return new SemanticError("Bad procedure: "+name+" on line: "+lineNumber+".");
+        return new SemanticError("Bad procedure: "+name+".", lineNumber);
     }
 
     public static SemanticError ExpectedArray(int lineNumber){
-        return new SemanticError("Expected array on line: "+lineNumber+".");
+        return new SemanticError("Expected array.", lineNumber);
     }
 
     public static SemanticError InvalidArrayIndex(int lineNumber){
-        return new SemanticError("Invalid array index on line: "+lineNumber+". Array indices must be of type: Integer.");
+        return new SemanticError("Invalid array index. Array indices must be of type: Integer.", lineNumber);
     }
 
     public static SemanticError InvalidArithmetic(int lineNumber){
-        return new SemanticError("Invalid expression on line: "+lineNumber+". Expected an arithmetic expression but found a relational expression.");
+        return new SemanticError("Invalid expression. Expected an arithmetic expression but found a relational expression.", lineNumber);
     }
 
     public static SemanticError InvalidRelational(int lineNumber){
-        return new SemanticError("Invalid expression on line: "+lineNumber+". Expected a relational expression but found an arithmetic expression.");
+        return new SemanticError("Invalid expression. Expected a relational expression but found an arithmetic expression.", lineNumber);
     }
 
     public static SemanticError NoSuchAction(int actionID){
@@ -93,33 +133,33 @@ public class SemanticError extends Error {
     }
 
     public static SemanticError WrongNumberOfParameters(String routineName, int lineNumber){
-        return new SemanticError("Invalid number of arguments given to: "+routineName+" on line: "+lineNumber+". The number of arguments must match the number of parameters for any function or procedure.");
+        return new SemanticError("Invalid number of arguments given to: "+routineName+". The number of arguments must match the number of parameters for any function or procedure.", lineNumber);
     }
 
     public static SemanticError InvalidParameter(String paramName, int lineNumber){
-        return new SemanticError("Invalid argument: "+paramName+" being passed to a function or procedure on line: "+lineNumber+". Parameters must be variables, constants, or arrays.");
+        return new SemanticError("Invalid argument: "+paramName+" being passed to a function or procedure. Parameters must be variables, constants, or arrays.", lineNumber);
     }
 
     public static SemanticError ParameterTypeMismatch(TokenType t1, TokenType t2, int lineNumber){
-        return new SemanticError("Attempting to use an argument of type: "+t1+" when routine expected a type of: "+t2+" on line: "+lineNumber+".");
+        return new SemanticError("Attempting to use an argument of type: "+t1+" when routine expected a type of: "+t2+".", lineNumber);
     }
 
     public static SemanticError InvalidArrayBound(boolean upper, int lineNumber){
         String bound = "upper";
         if(!upper){ bound = "lower"; }
-        return new SemanticError("Array argument on line: "+lineNumber+" has an invalid "+bound+" bound. Parameter and argument bounds must match.");
+        return new SemanticError("Array argument has an invalid "+bound+" bound. Parameter and argument bounds must match.", lineNumber);
     }
 
     public static SemanticError TypeMismatch(int lineNumber){
-        return new SemanticError("Type mismatch on line: "+lineNumber+".");
+        return new SemanticError("Type mismatch.", lineNumber);
     }
 
     public static SemanticError RoutineNotFound(int lineNumber){
-        return new SemanticError("Routine Not Found On Line: "+lineNumber+".");
+        return new SemanticError("Routine Not Found.", lineNumber);
     }
 
     public static SemanticError ArrayNotFound(int lineNumber){
-        return new SemanticError("Array Not Found On Line: "+lineNumber+".");
+        return new SemanticError("Array Not Found.", lineNumber);
     }
 
     public static SemanticError OperandStringUnknown(String name){
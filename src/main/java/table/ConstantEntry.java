@@ -17,6 +17,9 @@ public class ConstantEntry extends SymbolTableEntry{
 
     /* flag indicating if this is a parameter */
     private boolean isParam;
+    /* the value of the constant, decoded by the lexer (0 if not given) */
+    private long intValue;
+    private double realValue;
 
     /**
      * ConstantEntry constructor
@@ -43,6 +46,42 @@ public class ConstantEntry extends SymbolTableEntry{
         this.isParam = isParam;
     }
 
+    /**
+     * ConstantEntry constructor
+     * @param name: the String name of the entry (the constant as written)
+     * @param tokenType: the Token Type of the entry.
+     * @param isParam: boolean indicating if parameter.
+     * @param intValue: the value of an integer constant.
+     */
+    public ConstantEntry(String name, TokenType tokenType, boolean isParam, long intValue){
+        this(name, tokenType, isParam);
+        this.intValue = intValue;
+    }
+
+    /**
+     * ConstantEntry constructor
+     * @param name: the String name of the entry (the constant as written)
+     * @param tokenType: the Token Type of the entry.
+     * @param isParam: boolean indicating if parameter.
+     * @param realValue: the value of a real constant.
+     */
+    public ConstantEntry(String name, TokenType tokenType, boolean isParam, double realValue){
+        this(name, tokenType, isParam);
+        this.realValue = realValue;
+    }
+
+    /**
+     * getIntValue: getter method for the value of an integer constant.
+     * @return the value, 0 if none was given.
+     */
+    public long getIntValue(){ return this.intValue; }
+
+    /**
+     * getRealValue: getter method for the value of a real constant.
+     * @return the value, 0 if none was given.
+     */
+    public double getRealValue(){ return this.realValue; }
+
     /**
      * isConstant: override the parent isConstant method.
      * @return True
@@ -7,41 +7,79 @@
 package main.java.table;
 
 import main.java.table.errors.SymbolTableError;
+import main.java.token.SymbolInterner;
 
-import java.util.Hashtable;
+import java.util.Arrays;
 import java.util.LinkedList;
 
 /**
  * SymbolTable class
+ *
+ * Entries are keyed by the symbol id of their name (see SymbolInterner),
+ * so the table is an array indexed by id. Names are case-insensitive.
  * @author Luis Serazo
  */
 public class SymbolTable{
 
-    /* hash table */
-    private Hashtable<String, SymbolTableEntry> table;
+    /* the interner shared with the lexer and the other tables */
+    private final SymbolInterner symbols;
+
+    /* entries indexed by symbol id, and the ids in insertion order */
+    private SymbolTableEntry[] entries;
+    private int[] ids;
+    private int size;
+
+    /**
+     * SymbolTable constructor
+     * @param size: the initial size of the Table
+     */
+    public SymbolTable(int size){ this(size, new SymbolInterner()); }
 
     /**
      * SymbolTable constructor
      * @param size: the initial size of the Table
+     * @param symbols: the SymbolInterner of the compilation
      */
-    public SymbolTable(int size){ this.table = new Hashtable<>(size); }
+    public SymbolTable(int size, SymbolInterner symbols){
+        this.symbols = symbols;
+        this.entries = new SymbolTableEntry[Math.max(size, 1)];
+        this.ids = new int[Math.max(size, 1)];
+    }
+
+    /**
+     * lookup: look up an entry in the symbol table
+     * @param symbol: the symbol id of the name.
+     * @return an entry in the SymbolTable (or null).
+     */
+    public SymbolTableEntry lookup(int symbol){
+        return (symbol >= 0 && symbol < entries.length) ? entries[symbol] : null;
+    }
 
     /**
      * lookup: look up an entry in the symbol table
      * @param key: a string key.
      * @return an entry in the SymbolTable.
      */
-    public SymbolTableEntry lookup(String key){ return this.table.get(key.toLowerCase()); } // get rid of to upper case?
+    public SymbolTableEntry lookup(String key){ return lookup(symbols.intern(key)); }
+
+    /**
+     * symbolOf: the symbol id of an entry's name.
+     * @param entry: a SymbolTableEntry.
+     * @return the symbol id.
+     */
+    public int symbolOf(SymbolTableEntry entry){
+        int symbol = entry.getSymbol();
+        return (symbol >= 0) ? symbol : symbols.intern(entry.getName());
+    }
 
     /**
      * insert: insert a value into the symbol table.
      * @param value: a TableEntry
      */
     public void insert(SymbolTableEntry value){
-        String key = value.getName().toLowerCase();
-        /* make sure that the name doesn't already exist */
-        if(!table.containsKey(key)){ table.put(key, value); }
-        else{ throw SymbolTableError.EntryAlreadyExists(value.getName()); }
+        int symbol = symbols.intern(value.getName());
+        value.setSymbol(symbol);
+        insert(symbol, value);
     }
 
     /**
@@ -49,31 +87,45 @@ public class SymbolTable{
      * @param key: a String
      * @param value: a TableEntry
      */
-    public void insert(String key, SymbolTableEntry value){
-        key = key.toLowerCase();
+    public void insert(String key, SymbolTableEntry value){ insert(symbols.intern(key), value); }
+
+    /**
+     * insert: insert a value into the symbol table.
+     * @param symbol: the symbol id of the key.
+     * @param value: a TableEntry
+     */
+    private void insert(int symbol, SymbolTableEntry value){
         /* make sure that the name doesn't already exist */
-        if(!table.containsKey(key)){ table.put(key, value); }
-        else{ throw SymbolTableError.EntryAlreadyExists(value.getName()); }
+        if(lookup(symbol) != null){ throw SymbolTableError.EntryAlreadyExists(value.getName()); }
+        if(symbol >= entries.length){ entries = Arrays.copyOf(entries, Math.max(symbol + 1, entries.length * 2)); }
+        if(size == ids.length){ ids = Arrays.copyOf(ids, size * 2); }
+        entries[symbol] = value;
+        ids[size++] = symbol;
     }
 
     /**
      * size: return the size of the symbol table.
      * @return the size of the symbol table.
      */
-    public int size(){ return table.size(); }
+    public int size(){ return this.size; }
 
     /**
      * delete: clears all entries in the symbol table.
      * Used in Semantic Action Phase 4.
      */
-    public void delete(){ this.table.clear(); }
+    public void delete(){
+        for(int i = 0; i < size; i++){ entries[ids[i]] = null; }
+        this.size = 0;
+    }
 
     /**
      * dumpTable: routine prints the symbol table contents
      */
     public void dumpTable(){
         System.out.println("Dumping Table (KEY -> ENTRY) ...");
-        for(String key : table.keySet()){ System.out.println(key + " --> " + lookup(key)); }
+        for(int i = 0; i < size; i++){
+            System.out.println(symbols.getName(ids[i]).toLowerCase() + " --> " + entries[ids[i]]);
+        }
     }
 
     /**
@@ -25,6 +25,8 @@ public class SymbolTableEntry implements TableEntryInterface{
     private String name;
     /* token component */
     private TokenType tokenType;
+    /* symbol id of the name (-1 until inserted in a SymbolTable) */
+    private int symbol = -1;
 
     /**
      * SymbolTableEntry constructor
@@ -53,6 +55,18 @@ public class SymbolTableEntry implements TableEntryInterface{
      */
     public String getName(){ return this.name; }
 
+    /**
+     * getSymbol: getter method for the symbol id of the name
+     * @return the symbol id, or -1 if the entry was never inserted.
+     */
+    public int getSymbol(){ return this.symbol; }
+
+    /**
+     * setSymbol: set by the SymbolTable on insertion.
+     * @param symbol: the symbol id of the name.
+     */
+    void setSymbol(int symbol){ this.symbol = symbol; }
+
     /**
      * getType: getter method for the Token Type of the entry
      * @return the Token Type of this entry.
@@ -0,0 +1,45 @@
+/*
+ * FILE: Position.java
+ *
+ * DESC: packs the position of a Token into a long.
+ *
+ */
+package main.java.token;
+
+/**
+ * Position: static helpers for packed source positions.
+ *
+ * A position is a long with the line number in the upper 32 bits
+ * and the column in the lower 32 bits.
+ */
+public final class Position {
+
+    /* the position of Tokens that do not come from the source */
+    public static final long NONE = 0L;
+
+    /* no instances */
+    private Position(){ }
+
+    /**
+     * of: packs a line and column into a position.
+     * @param line: the line number.
+     * @param column: the column.
+     * @return the packed position.
+     */
+    public static long of(int line, int column){ return ((long) line << 32) | (column & 0xFFFFFFFFL); }
+
+    /**
+     * line: unpacks the line number of a position.
+     * @param position: a packed position.
+     * @return the line number.
+     */
+    public static int line(long position){ return (int) (position >>> 32); }
+
+    /**
+     * column: unpacks the column of a position.
+     * @param position: a packed position.
+     * @return the column.
+     */
+    public static int column(long position){ return (int) position; }
+
+} /* end of Position class */
@@ -0,0 +1,196 @@
+/*
+ * FILE: SymbolInterner.java
+ *
+ * DESC: contains the SymbolInterner class, which maps
+ *       every name in a compilation to a dense int id.
+ *
+ */
+package main.java.token;
+
+import java.util.Arrays;
+
+/**
+ * SymbolInterner class
+ *
+ * Names are case-insensitive, so they are folded to upper case once, when
+ * first seen. The lexer interns straight from its scan buffer: a name that
+ * was already interned costs one hash and one compare, nothing is allocated.
+ * Ids are dense (0, 1, 2, ...) so tables keyed by symbol can be plain arrays.
+ *
+ * Note: one SymbolInterner is shared by the whole compilation (lexer and
+ *       symbol tables), so its methods are synchronized.
+ */
+public final class SymbolInterner {
+
+    private static final int INITIAL_SIZE = 256;
+
+    /*
+     * - slots: open addressing hash table holding id + 1 (0 is an empty slot)
+     * - names: the folded name of each id
+     * - hashes: the hash of each id
+     * - identifiers: the IDENTIFIER TokenKind of each id (created on demand)
+     * - count: the number of ids
+     */
+    private int[] slots;
+    private String[] names;
+    private int[] hashes;
+    private TokenKind[] identifiers;
+    private int count;
+
+    /**
+     * SymbolInterner constructor
+     */
+    public SymbolInterner(){
+        this.slots = new int[INITIAL_SIZE * 2];
+        this.names = new String[INITIAL_SIZE];
+        this.hashes = new int[INITIAL_SIZE];
+        this.identifiers = new TokenKind[INITIAL_SIZE];
+    }
+
+    /**
+     * fold: folds a character to upper case.
+     */
+    private static char fold(char chr){
+        if(chr < 128){ return (chr >= 'a' && chr <= 'z') ? (char) (chr - ('a' - 'A')) : chr; }
+        return Character.toUpperCase(chr);
+    }
+
+    /**
+     * intern: the id of a name held in a char buffer.
+     * @param chars: the buffer.
+     * @param length: the number of characters of the name.
+     * @return the symbol id.
+     */
+    public synchronized int intern(char[] chars, int length){
+        int hash = 0;
+        for(int i = 0; i < length; i++){ hash = 31 * hash + fold(chars[i]); }
+
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        for(int id = slots[slot] - 1; id >= 0; id = slots[slot] - 1){
+            if(hashes[id] == hash && matches(names[id], chars, length)){ return id; }
+            slot = (slot + 1) & mask;
+        }
+        /* first time we see this name */
+        char[] folded = new char[length];
+        for(int i = 0; i < length; i++){ folded[i] = fold(chars[i]); }
+        return add(new String(folded), hash, slot);
+    }
+
+    /**
+     * intern: the id of a name.
+     * @param name: the name (any case).
+     * @return the symbol id.
+     */
+    public synchronized int intern(String name){
+        int length = name.length();
+        int hash = 0;
+        for(int i = 0; i < length; i++){ hash = 31 * hash + fold(name.charAt(i)); }
+
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        for(int id = slots[slot] - 1; id >= 0; id = slots[slot] - 1){
+            if(hashes[id] == hash && matches(names[id], name)){ return id; }
+            slot = (slot + 1) & mask;
+        }
+        /* first time we see this name */
+        char[] folded = new char[length];
+        for(int i = 0; i < length; i++){ folded[i] = fold(name.charAt(i)); }
+        return add(new String(folded), hash, slot);
+    }
+
+    /**
+     * identifier: the shared IDENTIFIER TokenKind of a name held in a char buffer.
+     * @param chars: the buffer.
+     * @param length: the number of characters of the name.
+     * @return the TokenKind (its value is the folded name).
+     */
+    public synchronized TokenKind identifier(char[] chars, int length){
+        int id = intern(chars, length);
+        TokenKind kind = identifiers[id];
+        if(kind == null){ identifiers[id] = kind = new TokenKind(TokenType.IDENTIFIER, names[id], id); }
+        return kind;
+    }
+
+    /**
+     * identifier: the shared IDENTIFIER TokenKind of a name.
+     * @param name: the name (any case).
+     * @return the TokenKind (its value is the folded name).
+     */
+    public synchronized TokenKind identifier(String name){
+        int id = intern(name);
+        TokenKind kind = identifiers[id];
+        if(kind == null){ identifiers[id] = kind = new TokenKind(TokenType.IDENTIFIER, names[id], id); }
+        return kind;
+    }
+
+    /**
+     * getName: the folded name of a symbol id.
+     */
+    public synchronized String getName(int id){ return names[id]; }
+
+    /**
+     * size: the number of interned names.
+     */
+    public synchronized int size(){ return this.count; }
+
+    /**
+     * matches: compares a folded name with a buffer (folding the buffer).
+     */
+    private static boolean matches(String name, char[] chars, int length){
+        if(name.length() != length){ return false; }
+        for(int i = 0; i < length; i++){
+            if(name.charAt(i) != fold(chars[i])){ return false; }
+        }
+        return true;
+    }
+
+    /**
+     * matches: compares a folded name with another name (folding the other name).
+     */
+    private static boolean matches(String name, String other){
+        if(name.length() != other.length()){ return false; }
+        for(int i = 0; i < other.length(); i++){
+            if(name.charAt(i) != fold(other.charAt(i))){ return false; }
+        }
+        return true;
+    }
+
+    /**
+     * spread: mixes the high bits of the hash into the low ones.
+     */
+    private static int spread(int hash){ return hash ^ (hash >>> 16); }
+
+    /**
+     * add: registers a new name in the given (empty) slot.
+     * @return the new symbol id.
+     */
+    private int add(String name, int hash, int slot){
+        int id = count++;
+        if(id == names.length){
+            names = Arrays.copyOf(names, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+            identifiers = Arrays.copyOf(identifiers, id * 2);
+        }
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        /* keep the table at most half full */
+        if(count * 2 > slots.length){ rehash(); }
+        return id;
+    }
+
+    /**
+     * rehash: doubles the hash table.
+     */
+    private void rehash(){
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for(int id = 0; id < count; id++){
+            int slot = spread(hashes[id]) & mask;
+            while(slots[slot] != 0){ slot = (slot + 1) & mask; }
+            slots[slot] = id + 1;
+        }
+    }
+
+} /* end of SymbolInterner class */
@@ -10,17 +10,18 @@ package main.java.token;
 /**
  * Token class
  * @author Luis Serazo
+ *
+ * Note: Tokens are immutable. The <TokenType, value, operator> part is a
+ *       TokenKind (shared between occurrences of keywords, operators and
+ *       punctuation), the line number and column are packed in a Position.
  */
-public class Token{
+public final class Token{
 
-    /* TokenType of a type */
-    private final TokenType tType;
-    /* value of a token */
-    private final String value;
-    /* metadata */
-    private int lineNum;
+    /* shared part of the token */
+    private final TokenKind kind;
+    /* metadata: packed Position */
+    private final long position;
 
-    private OperatorType opT;
     /* keep track of the kind of operator */
     public enum OperatorType{
         EQ,
@@ -43,94 +44,105 @@ public class Token{
 
     /**
      * Token constructor
-     * @param tType a TokenType
-     * @param value a String with the TokenType valueue
+     * @param kind the shared TokenKind
+     * @param position a packed Position
      */
-    public Token(TokenType tType, String value, int lineNum){
-        this.tType = tType;
-        this.value = value;
-        this.lineNum = lineNum;
-        this.opT = OperatorType.NONE;
+    public Token(TokenKind kind, long position){
+        this.kind = kind;
+        this.position = position;
     }
 
     /**
-     * second Token constructor
+     * Token constructor
      * @param tType a TokenType
      * @param value a String with the TokenType valueue
+     * @param lineNum the line number of the Token
      */
-    public Token(TokenType tType, String value){
-        this.tType = tType;
-        this.value = value;
-        this.lineNum = 0; // TODO: this must be modified later.
-        this.opT = OperatorType.NONE;
+    public Token(TokenType tType, String value, int lineNum){
+        this(new TokenKind(tType, value), Position.of(lineNum, 0));
     }
 
     /**
      * Token constructor
      * @param tType a TokenType
      * @param value a String with the TokenType valueue
+     * @param lineNum the line number of the Token
+     * @param opT the kind of operator
      */
     public Token(TokenType tType, String value, int lineNum, OperatorType opT){
-        this.tType = tType;
-        this.value = value;
-        this.lineNum = lineNum;
-        this.opT = opT;
+        this(new TokenKind(tType, value, opT), Position.of(lineNum, 0));
     }
 
+    public OperatorType getOpType(){ return this.kind.getOpType(); }
+
     /**
-     * second Token constructor
-     * @param tType a TokenType
-     * @param value a String with the TokenType valueue
+     * getKind: getter method for the shared part of the Token
+     * @return the TokenKind
      */
-    public Token(TokenType tType, String value, OperatorType opT){
-        this.tType = tType;
-        this.value = value;
-        this.lineNum = 0; // TODO: this must be modified later.
-        this.opT = opT;
-    }
-
-    public OperatorType getOpType(){ return this.opT; }
-
+    public TokenKind getKind(){ return this.kind; }
 
     /**
      * getTokenType: getter method for the token type
      * @return the Token type
      */
-    public TokenType getTokenType(){ return this.tType; }
+    public TokenType getTokenType(){ return this.kind.getTokenType(); }
 
     /**
      * getValue: getter method for the value of the Token
      * @return the value of the Token
      */
-    public String getValue(){ return this.value; }
+    public String getValue(){ return this.kind.getValue(); }
+
+    /**
+     * getSymbol: getter method for the SymbolInterner id of an identifier
+     * @return the symbol id, or -1 if the Token was not interned
+     */
+    public int getSymbol(){ return this.kind.getSymbol(); }
+
+    /**
+     * getIntValue: getter method for the value of an integer constant
+     * @return the decoded value (0 if the Token is not an INTCONSTANT)
+     */
+    public long getIntValue(){ return this.kind.getIntValue(); }
+
+    /**
+     * getRealValue: getter method for the value of a real constant
+     * @return the decoded value (0 if the Token is not a REALCONSTANT)
+     */
+    public double getRealValue(){ return this.kind.getRealValue(); }
 
     /**
      * isEOF: checks if the current Token is EOF
      * @return True if the Token is EOF, False otherwise.
      */
-    public boolean isEOF(){ return this.tType == TokenType.ENDOFFILE; }
+    public boolean isEOF(){ return getTokenType() == TokenType.ENDOFFILE; }
 
     /**
      * getTypeIndex:
      * @return the Token type index
      */
-    public int getTypeIndex(){ return this.tType.getIndex(); }
+    public int getTypeIndex(){ return getTokenType().getIndex(); }
 
     /**
      * toString: returns a string representation of this Token
      * @return a String representation of this Token.
      */
     @Override
-    public String toString(){ return "[ "+this.tType.getName()+" , "+this.value+" ]"; }
+    public String toString(){ return "[ "+getTokenType().getName()+" , "+getValue()+" ]"; }
+
+    /**
+     * getPosition: getter method for the packed Position
+     */
+    public long getPosition(){ return this.position; }
 
     /**
      * getLineNum:
      */
-    public int getLineNum(){ return this.lineNum; }
+    public int getLineNum(){ return Position.line(this.position); }
 
     /**
-     * setLineNum:
+     * getColumn: the column of the first character of the Token (1 based, 0 if unknown).
      */
-    public void setLineNum(int lineNum){ this.lineNum = lineNum; }
+    public int getColumn(){ return Position.column(this.position); }
 
 } /* end of Token class */
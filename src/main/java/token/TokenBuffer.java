@@ -0,0 +1,594 @@
+/*
+ * FILE: TokenBuffer.java
+ *
+ * DESC: contains the TokenBuffer class, a whole
+ *       compilation unit of Tokens in packed form.
+ *
+ */
+package main.java.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * TokenBuffer class
+ *
+ * Stores Tokens as parallel primitive arrays (struct of arrays) instead of
+ * one object per Token. Each Token has a type, source offset, length, packed
+ * Position (line and column) and symbol id. The symbol id indexes the TokenKinds of the buffer: keywords,
+ * operators, punctuation and interned identifiers keep their shared kind,
+ * constants get one kind per distinct value (carrying the decoded value).
+ */
+public class TokenBuffer {
+
+    private static final int INITIAL_SIZE = 1024;
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final Token.OperatorType[] OPERATORS = Token.OperatorType.values();
+
+    /*
+     * Binary form (see encode):
+     * - MAGIC, the number of Tokens, the number of symbols (big-endian ints)
+     * - every symbol: shared flag, type, operator, value length (-1 for null),
+     *   value (UTF-8) and the value of a constant (raw bits for a real)
+     * - every Token: type, then as varints the symbol id, the gap since the end of
+     *   the Token before, the length, the change in line (zigzag) and the column
+     * Most Tokens take 6 bytes, none less (decode checks the counts against this).
+     */
+    private static final int MAGIC = 0x544F4B02;
+    private static final int SYMBOL_BYTES = 3 + 4 + 8;
+    private static final int MIN_TOKEN_BYTES = 6;
+
+    /*
+     * Token columns (index i describes the i-th Token):
+     * - types: TokenType ordinal
+     * - offsets: offset of the first character in the source
+     * - lengths: number of source characters
+     * - positions: line and column, packed (see Position)
+     * - symbols: index into kinds
+     */
+    private byte[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private long[] positions;
+    private int[] symbols;
+    private int size;
+
+    /*
+     * Symbols:
+     * - kinds: the TokenKind of each symbol id
+     * - sharedIds: symbol ids of shared TokenKinds
+     * - valueIds: symbol ids of identifier and constant values
+     *
+     * Note: a value alone identifies a symbol, since identifiers, integer
+     *       constants and real constants never have the same spelling.
+     */
+    private TokenKind[] kinds;
+    private int symbolCount;
+    private final IdentityHashMap<TokenKind, Integer> sharedIds;
+    private final HashMap<String, Integer> valueIds;
+
+    /**
+     * TokenBuffer constructor
+     */
+    public TokenBuffer(){
+        this(INITIAL_SIZE);
+    }
+
+    /**
+     * TokenBuffer constructor
+     * @param capacity: the initial number of Tokens.
+     */
+    public TokenBuffer(int capacity){
+        capacity = Math.max(capacity, 1);
+        this.types = new byte[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.positions = new long[capacity];
+        this.symbols = new int[capacity];
+        this.kinds = new TokenKind[64];
+        this.sharedIds = new IdentityHashMap<>();
+        this.valueIds = new HashMap<>();
+    }
+
+    /**
+     * add: appends a keyword, operator or punctuation Token.
+     * @param kind: the shared TokenKind.
+     * @param position: the packed Position.
+     * @param offset: the source offset.
+     * @param length: the number of source characters.
+     */
+    public void add(TokenKind kind, long position, int offset, int length){
+        append(kind.getTokenType(), position, offset, length, sharedSymbol(kind));
+    }
+
+    /**
+     * add: appends an identifier, constant or EOF Token.
+     * @param type: the TokenType.
+     * @param value: the value of the Token (null for EOF).
+     * @param position: the packed Position.
+     * @param offset: the source offset.
+     * @param length: the number of source characters.
+     */
+    public void add(TokenType type, String value, long position, int offset, int length){
+        append(type, position, offset, length, valueSymbol(type, value));
+    }
+
+    /**
+     * addInt: appends an integer constant Token.
+     * @param value: the constant as written.
+     * @param number: the value of the constant.
+     * @param position: the packed Position.
+     * @param offset: the source offset.
+     * @param length: the number of source characters.
+     */
+    public void addInt(String value, long number, long position, int offset, int length){
+        Integer id = valueIds.get(value);
+        append(TokenType.INTCONSTANT, position, offset, length, (id != null) ? id : newValueSymbol(TokenKind.intConstant(value, number)));
+    }
+
+    /**
+     * addReal: appends a real constant Token.
+     * @param value: the constant as written.
+     * @param number: the value of the constant.
+     * @param position: the packed Position.
+     * @param offset: the source offset.
+     * @param length: the number of source characters.
+     */
+    public void addReal(String value, double number, long position, int offset, int length){
+        Integer id = valueIds.get(value);
+        append(TokenType.REALCONSTANT, position, offset, length, (id != null) ? id : newValueSymbol(TokenKind.realConstant(value, number)));
+    }
+
+    /**
+     * addRange: appends Tokens from another buffer.
+     * @param other: the other TokenBuffer.
+     * @param from: the index of the first Token to append.
+     * @param to: the index after the last Token to append.
+     * @param resolve: maps each shared TokenKind of the other buffer to the
+     *                 kind to store (called once per symbol).
+     */
+    public void addRange(TokenBuffer other, int from, int to, UnaryOperator<TokenKind> resolve){
+        /* symbol ids of the other buffer --> symbol ids of this buffer */
+        int[] remap = new int[other.symbolCount];
+        Arrays.fill(remap, -1);
+        for(int i = from; i < to; i++){
+            int symbol = other.symbols[i];
+            if(remap[symbol] < 0){ remap[symbol] = importSymbol(other, symbol, resolve); }
+            append(other.getType(i), other.positions[i], other.offsets[i], other.lengths[i], remap[symbol]);
+        }
+    }
+
+    /**
+     * splice: replaces the Tokens [from, to) with the first Tokens of another buffer.
+     * The Tokens after them are moved by the given deltas.
+     * @param from: the index of the first Token to replace.
+     * @param to: the index after the last Token to replace.
+     * @param part: the buffer holding the new Tokens (sharing this buffer's identifiers).
+     * @param count: the number of Tokens of part to insert.
+     * @param offsetDelta: added to the offset of every Token after the replaced ones.
+     * @param lineDelta: added to the line of every Token after the replaced ones.
+     * @param columnLine: the line (once moved) the first Tokens after the replaced ones share
+     *                    with the edit, if any.
+     * @param columnDelta: added to the column of the Tokens after the replaced ones on columnLine.
+     */
+    public void splice(int from, int to, TokenBuffer part, int count, int offsetDelta, int lineDelta, int columnLine, int columnDelta){
+        int tail = size - to;
+        int newSize = from + count + tail;
+        while(newSize > types.length){ grow(); }
+
+        /* move the tail into place */
+        int at = from + count;
+        System.arraycopy(types, to, types, at, tail);
+        System.arraycopy(offsets, to, offsets, at, tail);
+        System.arraycopy(lengths, to, lengths, at, tail);
+        System.arraycopy(positions, to, positions, at, tail);
+        System.arraycopy(symbols, to, symbols, at, tail);
+        long moved = (long) lineDelta << 32;
+        for(int i = at; i < newSize; i++){
+            offsets[i] += offsetDelta;
+            positions[i] += moved;
+        }
+        /* the Tokens on the line the edit ends on also move along it */
+        for(int i = at; i < newSize && Position.line(positions[i]) == columnLine; i++){
+            positions[i] = Position.of(columnLine, Position.column(positions[i]) + columnDelta);
+        }
+
+        /* copy the new Tokens in */
+        int[] remap = new int[part.symbolCount];
+        Arrays.fill(remap, -1);
+        for(int i = 0; i < count; i++){
+            int symbol = part.symbols[i];
+            if(remap[symbol] < 0){ remap[symbol] = importSymbol(part, symbol, UnaryOperator.identity()); }
+            types[from + i] = part.types[i];
+            offsets[from + i] = part.offsets[i];
+            lengths[from + i] = part.lengths[i];
+            positions[from + i] = part.positions[i];
+            symbols[from + i] = remap[symbol];
+        }
+        size = newSize;
+    }
+
+    /**
+     * encode: the buffer in binary form, to be read back by decode.
+     * @return a ByteBuffer holding the Tokens and their symbols (flipped, ready to be written).
+     */
+    public ByteBuffer encode(){
+        byte[][] values = new byte[symbolCount][];
+        int bytes = 12 + symbolCount * SYMBOL_BYTES + size;
+        for(int s = 0; s < symbolCount; s++){
+            String value = kinds[s].getValue();
+            if(value != null){
+                values[s] = value.getBytes(StandardCharsets.UTF_8);
+                bytes += values[s].length;
+            }
+        }
+        int end = 0, line = 0;
+        for(int i = 0; i < size; i++){
+            int next = Position.line(positions[i]);
+            bytes += varintSize(symbols[i]) + varintSize(zigzag(offsets[i] - end)) + varintSize(lengths[i])
+                    + varintSize(zigzag(next - line)) + varintSize(Position.column(positions[i]));
+            end = offsets[i] + lengths[i];
+            line = next;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(bytes);
+        out.putInt(MAGIC).putInt(size).putInt(symbolCount);
+        for(int s = 0; s < symbolCount; s++){
+            TokenKind kind = kinds[s];
+            Integer shared = sharedIds.get(kind);
+            out.put((byte) ((shared != null && shared == s) ? 1 : 0));
+            out.put((byte) kind.getTokenType().ordinal());
+            out.put((byte) kind.getOpType().ordinal());
+            out.putInt((values[s] == null) ? -1 : values[s].length);
+            if(values[s] != null){ out.put(values[s]); }
+            out.putLong((kind.getTokenType() == TokenType.REALCONSTANT) ? Double.doubleToRawLongBits(kind.getRealValue()) : kind.getIntValue());
+        }
+        end = 0;
+        line = 0;
+        for(int i = 0; i < size; i++){
+            int next = Position.line(positions[i]);
+            out.put(types[i]);
+            putVarint(out, symbols[i]);
+            putVarint(out, zigzag(offsets[i] - end));
+            putVarint(out, lengths[i]);
+            putVarint(out, zigzag(next - line));
+            putVarint(out, Position.column(positions[i]));
+            end = offsets[i] + lengths[i];
+            line = next;
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * decode: reads back a buffer written by encode.
+     * @param in: the encoded buffer (read from its position on).
+     * @param interner: the SymbolInterner identifiers are interned in.
+     * @return the TokenBuffer.
+     * @throws IllegalArgumentException if the bytes are not an encoded TokenBuffer.
+     * Note: counts are checked against the bytes left before anything is allocated
+     *       for them, so a corrupt or truncated buffer is rejected (not an OutOfMemoryError).
+     */
+    public static TokenBuffer decode(ByteBuffer in, SymbolInterner interner){
+        if(in.remaining() < 12 || in.getInt() != MAGIC){ throw new IllegalArgumentException("Not an encoded TokenBuffer"); }
+        int size = in.getInt();
+        int symbolCount = in.getInt();
+        if(size < 0 || symbolCount < 0 || (long) size * MIN_TOKEN_BYTES + (long) symbolCount * SYMBOL_BYTES > in.remaining()){
+            throw new IllegalArgumentException("Truncated TokenBuffer: "+size+" Tokens and "+symbolCount+" symbols in "+in.remaining()+" bytes");
+        }
+        TokenBuffer tokens = new TokenBuffer(size);
+        for(int s = 0; s < symbolCount; s++){
+            boolean shared = in.get() == 1;
+            TokenType type = TYPES[in.get()];
+            Token.OperatorType opT = OPERATORS[in.get()];
+            int length = in.getInt();
+            String value = null;
+            if(length >= 0){
+                if(length > in.remaining()){ throw new IllegalArgumentException("Truncated TokenBuffer: a value of "+length+" bytes in "+in.remaining()); }
+                byte[] chars = new byte[length];
+                in.get(chars);
+                value = new String(chars, StandardCharsets.UTF_8);
+            }
+            long number = in.getLong();
+
+            TokenKind kind;
+            if(type == TokenType.IDENTIFIER){ kind = interner.identifier(value); }
+            else if(type == TokenType.INTCONSTANT){ kind = TokenKind.intConstant(value, number); }
+            else if(type == TokenType.REALCONSTANT){ kind = TokenKind.realConstant(value, Double.longBitsToDouble(number)); }
+            else{ kind = new TokenKind(type, value, opT); }
+
+            if(shared){ tokens.sharedIds.put(kind, tokens.newSymbol(kind)); }
+            else{ tokens.newValueSymbol(kind); }
+        }
+
+        int end = 0, line = 0;
+        for(int i = 0; i < size; i++){
+            byte type = in.get();
+            int symbol = getVarint(in);
+            if(type < 0 || type >= TYPES.length || symbol < 0 || symbol >= symbolCount){ throw new IllegalArgumentException("Not an encoded TokenBuffer"); }
+            int offset = end + unzigzag(getVarint(in));
+            int length = getVarint(in);
+            line += unzigzag(getVarint(in));
+            tokens.types[i] = type;
+            tokens.symbols[i] = symbol;
+            tokens.offsets[i] = offset;
+            tokens.lengths[i] = length;
+            tokens.positions[i] = Position.of(line, getVarint(in));
+            end = offset + length;
+        }
+        tokens.size = size;
+        return tokens;
+    }
+
+    /*
+     * Varints: 7 bits per byte, low bits first, the high bit set on every byte but the last.
+     * Signed values are zigzagged first (0, -1, 1, -2 ... --> 0, 1, 2, 3 ...).
+     */
+    private static int zigzag(int value){ return (value << 1) ^ (value >> 31); }
+
+    private static int unzigzag(int value){ return (value >>> 1) ^ -(value & 1); }
+
+    private static int varintSize(int value){
+        int bytes = 1;
+        while((value >>>= 7) != 0){ bytes++; }
+        return bytes;
+    }
+
+    private static void putVarint(ByteBuffer out, int value){
+        while((value & ~0x7F) != 0){
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in){
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7){
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0){ return value; }
+        }
+        throw new IllegalArgumentException("Not an encoded TokenBuffer");
+    }
+
+    /**
+     * importSymbol: the symbol id in this buffer of a symbol of another buffer.
+     * Values are looked up by value, shared TokenKinds are resolved first.
+     */
+    private int importSymbol(TokenBuffer other, int symbol, UnaryOperator<TokenKind> resolve){
+        TokenKind kind = other.kinds[symbol];
+        Integer byValue = (kind.getValue() == null) ? null : other.valueIds.get(kind.getValue());
+        return (byValue != null && byValue == symbol) ? valueSymbol(kind) : sharedSymbol(resolve.apply(kind));
+    }
+
+    /**
+     * sharedSymbol: the symbol id of a shared TokenKind.
+     */
+    private int sharedSymbol(TokenKind kind){
+        Integer id = sharedIds.get(kind);
+        if(id == null){
+            id = newSymbol(kind);
+            sharedIds.put(kind, id);
+        }
+        return id;
+    }
+
+    /**
+     * valueSymbol: the symbol id of an identifier, constant or EOF value.
+     */
+    private int valueSymbol(TokenType type, String value){
+        Integer id = (value == null) ? null : valueIds.get(value);
+        return (id != null) ? id : newValueSymbol(new TokenKind(type, value));
+    }
+
+    /**
+     * valueSymbol: the symbol id of the value of a TokenKind (kept if the value is new).
+     */
+    private int valueSymbol(TokenKind kind){
+        Integer id = valueIds.get(kind.getValue());
+        return (id != null) ? id : newValueSymbol(kind);
+    }
+
+    /**
+     * newValueSymbol: registers the TokenKind of a new value as a new symbol.
+     * @return the symbol id.
+     */
+    private int newValueSymbol(TokenKind kind){
+        int id = newSymbol(kind);
+        if(kind.getValue() != null){ valueIds.put(kind.getValue(), id); }
+        return id;
+    }
+
+    /**
+     * newSymbol: registers a TokenKind as a new symbol.
+     * @return the symbol id.
+     */
+    private int newSymbol(TokenKind kind){
+        if(symbolCount == kinds.length){ kinds = Arrays.copyOf(kinds, symbolCount * 2); }
+        kinds[symbolCount] = kind;
+        return symbolCount++;
+    }
+
+    /**
+     * append: stores a row in the Token columns.
+     */
+    private void append(TokenType type, long position, int offset, int length, int symbol){
+        if(size == types.length){ grow(); }
+        types[size] = (byte) type.ordinal();
+        positions[size] = position;
+        offsets[size] = offset;
+        lengths[size] = length;
+        symbols[size] = symbol;
+        size++;
+    }
+
+    /**
+     * grow: doubles the capacity of every column.
+     */
+    private void grow(){
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+    }
+
+    /**
+     * size: the number of Tokens in the buffer.
+     */
+    public int size(){ return this.size; }
+
+    /**
+     * getType: the TokenType of the i-th Token.
+     */
+    public TokenType getType(int i){ return TYPES[types[i]]; }
+
+    /**
+     * getTypeIndex: the grammar index of the i-th Token's type.
+     */
+    public int getTypeIndex(int i){ return TYPES[types[i]].getIndex(); }
+
+    public int getOffset(int i){ return offsets[i]; }
+
+    public int getLength(int i){ return lengths[i]; }
+
+    public int getLine(int i){ return Position.line(positions[i]); }
+
+    public int getColumn(int i){ return Position.column(positions[i]); }
+
+    public long getPosition(int i){ return positions[i]; }
+
+    public int getSymbol(int i){ return symbols[i]; }
+
+    /**
+     * getKind: the TokenKind of the i-th Token.
+     */
+    public TokenKind getKind(int i){ return kinds[symbols[i]]; }
+
+    /**
+     * get: creates a Token object for the i-th Token.
+     * @param i: the Token index.
+     * @return the i-th Token.
+     */
+    public Token get(int i){ return getKind(i).at(positions[i]); }
+
+    /**
+     * stream: the Tokens of the buffer as a sequential Stream (see spliterator).
+     * @return the Stream of Tokens, created as they are consumed.
+     */
+    public Stream<Token> stream(){ return StreamSupport.stream(spliterator(), false); }
+
+    /**
+     * spliterator: the Tokens of the buffer, a Token object created per element.
+     * Note: it splits in halves, so the stream can be made parallel. The buffer
+     *       must not be changed (splice, add) while it is in use.
+     * @return the Spliterator of Tokens.
+     */
+    public Spliterator<Token> spliterator(){ return new TokenSpliterator(this, 0, size); }
+
+    /**
+     * types: the TokenTypes of the buffer as ordinals (TokenType.values()[ordinal]),
+     *        straight from the type column (splits like spliterator).
+     * @return the IntStream of TokenType ordinals.
+     */
+    public IntStream types(){ return StreamSupport.intStream(new TypeSpliterator(types, 0, size), false); }
+
+    /**
+     * TokenSpliterator: the Tokens [index, end) of a buffer.
+     */
+    private static final class TokenSpliterator implements Spliterator<Token> {
+
+        private final TokenBuffer tokens;
+        private int index;
+        private final int end;
+
+        TokenSpliterator(TokenBuffer tokens, int index, int end){
+            this.tokens = tokens;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Token> action){
+            if(index >= end){ return false; }
+            action.accept(tokens.get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Token> action){
+            for(; index < end; index++){ action.accept(tokens.get(index)); }
+        }
+
+        @Override
+        public Spliterator<Token> trySplit(){
+            int mid = (index + end) >>> 1;
+            if(mid <= index){ return null; }
+            Spliterator<Token> prefix = new TokenSpliterator(tokens, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize(){ return end - index; }
+
+        @Override
+        public int characteristics(){ return ORDERED | SIZED | SUBSIZED | NONNULL; }
+    }
+
+    /**
+     * TypeSpliterator: the TokenType ordinals [index, end) of a type column.
+     */
+    private static final class TypeSpliterator implements Spliterator.OfInt {
+
+        private final byte[] types;
+        private int index;
+        private final int end;
+
+        TypeSpliterator(byte[] types, int index, int end){
+            this.types = types;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action){
+            if(index >= end){ return false; }
+            action.accept(types[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action){
+            for(; index < end; index++){ action.accept(types[index]); }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit(){
+            int mid = (index + end) >>> 1;
+            if(mid <= index){ return null; }
+            Spliterator.OfInt prefix = new TypeSpliterator(types, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize(){ return end - index; }
+
+        @Override
+        public int characteristics(){ return ORDERED | SIZED | SUBSIZED; }
+    }
+
+} /* end of TokenBuffer class */
@@ -0,0 +1,130 @@
+/*
+ * FILE: TokenKind.java
+ *
+ * DESC: contains the TokenKind class, the shared
+ *       (flyweight) part of a Token.
+ *
+ */
+package main.java.token;
+
+/**
+ * TokenKind class
+ *
+ * Immutable <TokenType, value, operator> triple. Keywords, operators
+ * and punctuation share one TokenKind per lexeme; each occurrence in the
+ * source is a Token pairing the kind with its position. Integer and real
+ * constants also carry their value, decoded once by the lexer.
+ */
+public final class TokenKind {
+
+    private final TokenType tType;
+    private final String value;
+    private final Token.OperatorType opT;
+    private final int symbol;
+    /* the value of an integer constant, or the bits of the value of a real constant */
+    private final long number;
+
+    /**
+     * TokenKind constructor
+     * @param tType a TokenType
+     * @param value a String with the TokenType value
+     */
+    public TokenKind(TokenType tType, String value){
+        this(tType, value, Token.OperatorType.NONE);
+    }
+
+    /**
+     * TokenKind constructor
+     * @param tType a TokenType
+     * @param value a String with the TokenType value
+     * @param opT the kind of operator
+     */
+    public TokenKind(TokenType tType, String value, Token.OperatorType opT){
+        this(tType, value, opT, -1, 0);
+    }
+
+    /**
+     * TokenKind constructor
+     * @param tType a TokenType
+     * @param value a String with the TokenType value
+     * @param symbol the SymbolInterner id of the value
+     */
+    TokenKind(TokenType tType, String value, int symbol){
+        this(tType, value, Token.OperatorType.NONE, symbol, 0);
+    }
+
+    /**
+     * TokenKind constructor
+     * @param tType a TokenType
+     * @param value a String with the TokenType value
+     * @param opT the kind of operator
+     * @param symbol the SymbolInterner id of the value
+     * @param number the value of a constant (raw bits for a real)
+     */
+    private TokenKind(TokenType tType, String value, Token.OperatorType opT, int symbol, long number){
+        this.tType = tType;
+        this.value = value;
+        this.opT = opT;
+        this.symbol = symbol;
+        this.number = number;
+    }
+
+    /**
+     * intConstant: the kind of an integer constant.
+     * @param value: the constant as written.
+     * @param number: the value of the constant.
+     * @return an INTCONSTANT TokenKind.
+     */
+    public static TokenKind intConstant(String value, long number){
+        return new TokenKind(TokenType.INTCONSTANT, value, Token.OperatorType.NONE, -1, number);
+    }
+
+    /**
+     * realConstant: the kind of a real constant.
+     * @param value: the constant as written.
+     * @param number: the value of the constant.
+     * @return a REALCONSTANT TokenKind.
+     */
+    public static TokenKind realConstant(String value, double number){
+        return new TokenKind(TokenType.REALCONSTANT, value, Token.OperatorType.NONE, -1, Double.doubleToRawLongBits(number));
+    }
+
+    /**
+     * at: creates an occurrence of this kind.
+     * @param position: a packed Position.
+     * @return a Token at the given position.
+     */
+    public Token at(long position){ return new Token(this, position); }
+
+    /**
+     * at: creates an occurrence of this kind.
+     * @param lineNum: the line number of the occurrence.
+     * @return a Token on the given line.
+     */
+    public Token at(int lineNum){ return new Token(this, Position.of(lineNum, 0)); }
+
+    public TokenType getTokenType(){ return this.tType; }
+
+    public String getValue(){ return this.value; }
+
+    public Token.OperatorType getOpType(){ return this.opT; }
+
+    /**
+     * getSymbol: the SymbolInterner id of an identifier.
+     * @return the symbol id, or -1 if the kind was not interned.
+     */
+    public int getSymbol(){ return this.symbol; }
+
+    /**
+     * getIntValue: the value of an integer constant.
+     * @return the value (0 for any other kind).
+     */
+    public long getIntValue(){ return (this.tType == TokenType.INTCONSTANT) ? this.number : 0; }
+
+    /**
+     * getRealValue: the value of a real constant.
+     * @return the value (0 for any other kind).
+     */
+    public double getRealValue(){ return (this.tType == TokenType.REALCONSTANT) ? Double.longBitsToDouble(this.number) : 0; }
+
+} /* end of TokenKind class */
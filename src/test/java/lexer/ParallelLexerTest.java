@@ -0,0 +1,96 @@
+/*
+ * File: ParallelLexerTest.java
+ *
+ * Desc: tests of the ParallelLexer against tokenizeAll.
+ *
+ */
+package main.java.lexer;
+
+import main.java.lexer.errors.LexerError;
+import main.java.token.TokenBuffer;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static main.java.token.TokenAssert.assertSameTokens;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ParallelLexerTest class
+ *
+ * With chunks of any size (setMinChunk(1)) a file is cut at nearly every line
+ * start, so every line start is a chunk boundary for some number of threads.
+ * Whatever the cuts, the Tokens must be the ones tokenizeAll finds, including
+ * a '+' or '-' starting a chunk (unary or binary depending on the Token before
+ * the cut, fixed up by concat).
+ */
+public class ParallelLexerTest {
+
+    private static final int[] THREADS = { 1, 2, 4, 8 };
+
+    /*
+     * Lines starting with '+' or '-' after every kind of Token that decides
+     * what they are: operands (binary), operators, '(' '[' ',' ':=' and keywords (unary).
+     */
+    private static final String SIGNS = String.join("\n",
+            "program signs (input, output);",
+            "begin",
+            "  a := b", "- c", "+ d;",
+            "  a := 1", "-2", "+3.5e2", "- 4.0;",
+            "  a := (b)", "-c;",
+            "  a := b[1]", "+ c;",
+            "  a :=", "-b", "+", "-", "c;",
+            "  a := b *", "-c /", "+d;",
+            "  a := f(", "-b,", "+c);",
+            "  if a <", "-1 then", "-a",
+            "  else a := b", "{ a comment }", "- c;",
+            "  while not", "-a do a := a", "-1",
+            "end.", "");
+
+    @Test
+    public void signsAtEveryChunkBoundary() throws IOException {
+        Path program = Files.createTempFile("signs", ".pas");
+        try{
+            Files.write(program, SIGNS.getBytes(StandardCharsets.ISO_8859_1));
+            assertSameAsTokenizeAll(program.toString());
+        }
+        finally{ Files.delete(program); }
+    }
+
+    @Test
+    public void everyTestProgram() throws IOException {
+        int programs = 0;
+        for(File program : TestPrograms.all()){
+            try{ new Tokenizer(program.getPath(), FileStream.Backend.MAPPED).tokenizeAll(); }
+            catch(LexerError e){ continue; } /* a program with a lexical error */
+            assertSameAsTokenizeAll(program.getPath());
+            programs++;
+        }
+        assertTrue("no test program was lexed", programs > 0);
+    }
+
+    /**
+     * assertSameAsTokenizeAll: lexes a file with tiny chunks on 1, 2, 4 and 8
+     *                          threads, then with one chunk per line.
+     */
+    private static void assertSameAsTokenizeAll(String path) throws IOException {
+        TokenBuffer expected = new Tokenizer(path, FileStream.Backend.MAPPED).tokenizeAll();
+        for(int threads : THREADS){ assertSameTokens(path + " on " + threads + " threads", expected, tokenize(path, threads)); }
+        int lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.ISO_8859_1).size();
+        assertSameTokens(path + " one chunk per line", expected, tokenize(path, Math.max(lines, 1)));
+    }
+
+    /**
+     * tokenize: the Tokens of a file lexed by a ParallelLexer with chunks of any size.
+     */
+    private static TokenBuffer tokenize(String path, int threads) throws IOException {
+        ParallelLexer lexer = new ParallelLexer(path);
+        lexer.setMinChunk(1);
+        return lexer.tokenize(threads);
+    }
+
+} /* end of ParallelLexerTest class */
@@ -0,0 +1,48 @@
+/*
+ * File: TestPrograms.java
+ *
+ * Desc: contains the TestPrograms class, the Pascal
+ *       programs under src/test/pascal.
+ *
+ */
+package main.java.lexer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TestPrograms class
+ *
+ * The test programs, in path order (the tests run from the project directory).
+ */
+public final class TestPrograms {
+
+    private static final String DIRECTORY = "src/test/pascal";
+
+    private TestPrograms(){ }
+
+    /**
+     * all: every .pas file under src/test/pascal.
+     */
+    public static List<File> all(){
+        List<File> files = new ArrayList<>();
+        collect(new File(DIRECTORY), files);
+        return files;
+    }
+
+    /**
+     * collect: adds the .pas files under a directory.
+     */
+    private static void collect(File directory, List<File> files){
+        File[] entries = directory.listFiles();
+        if(entries == null){ return; }
+        Arrays.sort(entries);
+        for(File entry : entries){
+            if(entry.isDirectory()){ collect(entry, files); }
+            else if(entry.getName().endsWith(".pas")){ files.add(entry); }
+        }
+    }
+
+} /* end of TestPrograms class */
@@ -0,0 +1,99 @@
+/*
+ * File: TokenCacheTest.java
+ *
+ * Desc: tests of the TokenCache with corrupt entries.
+ *
+ */
+package main.java.lexer;
+
+import main.java.token.SymbolInterner;
+import main.java.token.TokenBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static main.java.token.TokenAssert.assertSameTokens;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TokenCacheTest class
+ *
+ * An entry that claims more Tokens than it holds, or that was cut short, is
+ * deleted and counts as missing: the program is lexed again (and cached again).
+ */
+public class TokenCacheTest {
+
+    private static final String PROGRAM = "src/test/pascal/parse/ult.pas";
+
+    @Test
+    public void dropsAnEntryWithAHugeTokenCount() throws IOException {
+        relexesAfter(entry -> {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(entry));
+            bytes.putInt(4, Integer.MAX_VALUE);
+            Files.write(entry, bytes.array());
+        });
+    }
+
+    @Test
+    public void dropsATruncatedEntry() throws IOException {
+        relexesAfter(entry -> {
+            byte[] bytes = Files.readAllBytes(entry);
+            byte[] half = new byte[bytes.length / 2];
+            System.arraycopy(bytes, 0, half, 0, half.length);
+            Files.write(entry, half);
+        });
+    }
+
+    /**
+     * Corruption: damages a cache entry in place.
+     */
+    private interface Corruption {
+        void apply(Path entry) throws IOException;
+    }
+
+    /**
+     * relexesAfter: caches the program, damages its entry, then checks that it is lexed again.
+     */
+    private static void relexesAfter(Corruption corruption) throws IOException {
+        Path directory = Files.createTempDirectory("tokencache");
+        try{
+            TokenBuffer lexed = new Tokenizer(PROGRAM).tokenizeAll();
+            TokenCache cache = new TokenCache(directory.toString(), Long.MAX_VALUE);
+            cache.tokenize(PROGRAM, new SymbolInterner());
+            List<Path> entries = files(directory);
+            assertEquals("entries after the first use", 1, entries.size());
+            corruption.apply(entries.get(0));
+
+            TokenBuffer tokens = cache.tokenize(PROGRAM, new SymbolInterner());
+            assertSameTokens(PROGRAM, lexed, tokens);
+            assertEquals("hits", 0, cache.getHits());
+            assertEquals("misses", 2, cache.getMisses());
+
+            /* cached again, readable this time */
+            assertSameTokens(PROGRAM, lexed, cache.tokenize(PROGRAM, new SymbolInterner()));
+            assertEquals("hits", 1, cache.getHits());
+        }
+        finally{
+            for(Path file : files(directory)){ Files.delete(file); }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * files: the files in a directory.
+     */
+    private static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try(DirectoryStream<Path> entries = Files.newDirectoryStream(directory)){
+            for(Path file : entries){ files.add(file); }
+        }
+        return files;
+    }
+
+} /* end of TokenCacheTest class */
@@ -0,0 +1,65 @@
+/*
+ * File: ParserTest.java
+ *
+ * Desc: tests of the syntax error reporting of the Parser.
+ *
+ */
+package main.java.parser;
+
+import main.java.parser.errors.ParseError;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * ParserTest class
+ *
+ * A program with several syntax errors: every one is printed, in order (the
+ * expected list is next to the program, in a .errors file), then run throws
+ * the first one, so that no code is written for it.
+ */
+public class ParserTest {
+
+    private static final String PROGRAM = "src/test/pascal/parse/multi_error.pas";
+    private static final String ERRORS = "src/test/pascal/parse/multi_error.errors";
+
+    @Test
+    public void reportsEveryErrorThenThrowsTheFirst() throws IOException {
+        Parser parser = new Parser(PROGRAM);
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(printed, true, "UTF-8"));
+        try {
+            parser.run();
+            fail("run returned on a program with syntax errors");
+        } catch (ParseError first) {
+            List<String> expected = Files.readAllLines(Paths.get(ERRORS), StandardCharsets.UTF_8);
+            assertEquals(expected, errorLines(new String(printed.toByteArray(), StandardCharsets.UTF_8)));
+            assertEquals(expected.get(0), first.toString());
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * errorLines: the lines of what the Parser printed that report a ParseError.
+     */
+    private static List<String> errorLines(String printed) {
+        List<String> lines = new ArrayList<>();
+        for (String line : printed.split("\\R")) {
+            if (line.startsWith(ParseError.class.getName())) { lines.add(line); }
+        }
+        return lines;
+    }
+
+} /* end of ParserTest class */
@@ -0,0 +1,47 @@
+/*
+ * File: TokenAssert.java
+ *
+ * Desc: contains the TokenAssert class, assertions
+ *       comparing TokenBuffers Token by Token.
+ *
+ */
+package main.java.token;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TokenAssert class
+ *
+ * Two TokenBuffers are the same when every Token has the same type, value
+ * (and decoded constant), operator, offset, length, line and column. Symbol
+ * ids are not compared: they depend on how the buffer was built.
+ */
+public final class TokenAssert {
+
+    private TokenAssert(){ }
+
+    /**
+     * assertSameTokens: fails at the first Token that differs.
+     * @param message: what is compared (prefixed to the failure).
+     * @param expected: the expected Tokens.
+     * @param actual: the Tokens to check.
+     */
+    public static void assertSameTokens(String message, TokenBuffer expected, TokenBuffer actual){
+        int size = Math.min(expected.size(), actual.size());
+        for(int i = 0; i < size; i++){
+            String at = message + ", Token " + i + " (" + expected.get(i) + " on line " + expected.getLine(i) + ")";
+            TokenKind want = expected.getKind(i), got = actual.getKind(i);
+            assertEquals(at + " type", want.getTokenType(), got.getTokenType());
+            assertEquals(at + " value", want.getValue(), got.getValue());
+            assertEquals(at + " operator", want.getOpType(), got.getOpType());
+            assertEquals(at + " integer value", want.getIntValue(), got.getIntValue());
+            assertEquals(at + " real value", Double.doubleToLongBits(want.getRealValue()), Double.doubleToLongBits(got.getRealValue()));
+            assertEquals(at + " offset", expected.getOffset(i), actual.getOffset(i));
+            assertEquals(at + " length", expected.getLength(i), actual.getLength(i));
+            assertEquals(at + " line", expected.getLine(i), actual.getLine(i));
+            assertEquals(at + " column", expected.getColumn(i), actual.getColumn(i));
+        }
+        assertEquals(message + ", number of Tokens", expected.size(), actual.size());
+    }
+
+} /* end of TokenAssert class */
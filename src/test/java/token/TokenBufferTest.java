@@ -0,0 +1,107 @@
+/*
+ * File: TokenBufferTest.java
+ *
+ * Desc: tests of the binary form of the TokenBuffer (encode and decode).
+ *
+ */
+package main.java.token;
+
+import main.java.lexer.TestPrograms;
+import main.java.lexer.Tokenizer;
+import main.java.lexer.errors.LexerError;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static main.java.token.TokenAssert.assertSameTokens;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * TokenBufferTest class
+ *
+ * Every test program survives encode and decode unchanged, and a corrupt or
+ * truncated encoding is rejected with an IllegalArgumentException before
+ * anything is allocated for the counts it claims.
+ */
+public class TokenBufferTest {
+
+    private static final String PROGRAM = "src/test/pascal/parse/ult.pas";
+
+    @Test
+    public void roundTripsEveryTestProgram(){
+        int programs = 0;
+        for(File program : TestPrograms.all()){
+            TokenBuffer tokens;
+            try{ tokens = new Tokenizer(program.getPath()).tokenizeAll(); }
+            catch(LexerError e){ continue; } /* a program with a lexical error */
+            ByteBuffer bytes = tokens.encode();
+            assertSameTokens(program.getPath(), tokens, TokenBuffer.decode(bytes, new SymbolInterner()));
+            assertEquals(program.getPath() + ": bytes left", 0, bytes.remaining());
+            programs++;
+        }
+        assertTrue("no test program was lexed", programs > 0);
+    }
+
+    @Test
+    public void rejectsAHugeTokenCount(){
+        ByteBuffer bytes = encoded();
+        bytes.putInt(4, Integer.MAX_VALUE);
+        assertRejected("Token count", bytes);
+    }
+
+    @Test
+    public void rejectsAHugeSymbolCount(){
+        ByteBuffer bytes = encoded();
+        bytes.putInt(8, Integer.MAX_VALUE);
+        assertRejected("symbol count", bytes);
+    }
+
+    @Test
+    public void rejectsNegativeCounts(){
+        ByteBuffer bytes = encoded();
+        bytes.putInt(4, -1);
+        assertRejected("negative Token count", bytes);
+    }
+
+    @Test
+    public void rejectsAHugeValueLength(){
+        /* the first symbol: shared flag, type and operator, then its value length */
+        ByteBuffer bytes = encoded();
+        bytes.putInt(12 + 3, Integer.MAX_VALUE);
+        assertRejected("value length", bytes);
+    }
+
+    @Test
+    public void rejectsEveryTruncation(){
+        ByteBuffer whole = encoded();
+        for(int length = 0; length < whole.limit(); length++){
+            ByteBuffer bytes = whole.duplicate();
+            bytes.limit(length);
+            assertRejected("truncated to " + length + " bytes", bytes);
+        }
+    }
+
+    /**
+     * encoded: the encoded Tokens of a test program.
+     */
+    private static ByteBuffer encoded(){
+        return new Tokenizer(PROGRAM).tokenizeAll().encode();
+    }
+
+    /**
+     * assertRejected: decode must throw an IllegalArgumentException, or run out of
+     *                 bytes (what TokenCache.load takes as a corrupt entry too).
+     */
+    private static void assertRejected(String what, ByteBuffer bytes){
+        try{
+            TokenBuffer.decode(bytes, new SymbolInterner());
+            fail(what + ": decoded");
+        }
+        catch(IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e){ /* rejected */ }
+    }
+
+} /* end of TokenBufferTest class */
@@ -0,0 +1,8 @@
+program multiError (input, output);
+var i : integer
+    j : real;
+begin
+  i := 1;
+  j := 2.0 * ;
+  write(i)
+end.